@@ -0,0 +1,101 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.runtime.AssignmentTraceLog;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The stateless assignment with and without an AssignmentTraceLog attached, to measure
+ * the cost of tracing every execution. Run it with the gc profiler to compare the
+ * garbage per call:
+ *
+ *   java -jar benchmarks/target/benchmarks.jar AssignmentTraceBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssignmentTraceBenchmark {
+
+    private static final int INCIDENTS = 64;
+
+    @Param({ "false", "true" })
+    public boolean trace;
+
+    @Param({ "100" })
+    public int fleetSize;
+
+    private StatelessKieSession session;
+
+    private Path file;
+
+    private AssignmentTraceLog log;
+
+    private Responders responders;
+
+    private Incident[] incidents;
+
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        session = KieServices.Factory.get().newKieClasspathContainer().newStatelessKieSession("cajun-navy-ksession");
+        if (trace) {
+            file = Files.createTempFile("assignment-trace", ".log");
+            Files.delete(file);
+            log = new AssignmentTraceLog(file);
+            log.attach(session);
+        }
+        responders = Fleets.responders(fleetSize, 42);
+        incidents = new Incident[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            incidents[i] = Fleets.incident("incident" + i, i);
+        }
+    }
+
+    @Benchmark
+    public Mission assign() {
+        Mission mission = new Mission();
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incidents[next++ % INCIDENTS]));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(mission));
+        commands.add(CommandFactory.newFireAllRules());
+        session.execute(CommandFactory.newBatchExecution(commands));
+        return mission;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (log != null) {
+            log.close();
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.runtime.AssignmentExecutor;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of independent stateless assignments sharing one KieBase, run by an
+ * AssignmentExecutor on 1 to 32 cores, on virtual threads or on a pool of platform
+ * threads. Every parameter runs in a JVM of its own, so the parallelism of the virtual
+ * thread scheduler can be set to the number of cores before its first virtual thread.
+ *
+ * When the sessions don't contend on the shared KieBase, the assignments per
+ * millisecond grow with the cores, up to the cores of the machine. Run it on Java 21,
+ * built with the jdk21 profile, with the virtual threads blocked in a synchronized
+ * block printed, to see where they contend:
+ *
+ *   java -jar benchmarks/target/benchmarks.jar ConcurrentAssignmentBenchmark -jvmArgsAppend -Djdk.tracePinnedThreads=short
+ *
+ * The forks open the JDK internals Drools reads on Java 21, an option Java 8 ignores,
+ * and on Java 8 the virtual parameter falls back to platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsPrepend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.util=ALL-UNNAMED",
+        "--add-opens=java.base/java.lang=ALL-UNNAMED", "--add-opens=java.base/java.lang.reflect=ALL-UNNAMED",
+        "--add-opens=java.base/java.text=ALL-UNNAMED", "--add-opens=java.desktop/java.awt.font=ALL-UNNAMED" })
+public class ConcurrentAssignmentBenchmark {
+
+    private static final int INCIDENTS = 256;
+
+    @Param({ "1", "2", "4", "8", "16", "32" })
+    public int cores;
+
+    @Param({ "virtual", "platform" })
+    public String threads;
+
+    @Param({ "100" })
+    public int fleetSize;
+
+    private AssignmentExecutor executor;
+
+    private Responders responders;
+
+    private Incident[] incidents;
+
+    @Setup
+    public void setup() {
+        System.setProperty("jdk.virtualThreadScheduler.parallelism", String.valueOf(cores));
+        System.setProperty("jdk.virtualThreadScheduler.maxPoolSize", String.valueOf(Math.max(256, cores)));
+        KieContainer container = KieServices.Factory.get().newKieClasspathContainer();
+        executor = new AssignmentExecutor(container, "virtual".equals(threads), cores);
+        responders = Fleets.responders(fleetSize, 42);
+        incidents = new Incident[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            incidents[i] = Fleets.incident("incident" + i, i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INCIDENTS)
+    public Mission assign() {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Mission>[] missions = new CompletableFuture[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            missions[i] = executor.assign(incidents[i], null, responders, null);
+        }
+        CompletableFuture.allOf(missions).join();
+        return missions[INCIDENTS - 1].join();
+    }
+}
@@ -0,0 +1,104 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.runtime.DeferredIncidentFilter;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.ClassObjectFilter;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of an incident deferred by its IncidentPriority in the cajun-navy-ksession, as
+ * for the low priority incidents of a surge: it gets no AssignmentPredicate, so the
+ * Responders are neither indexed nor inserted and the cost shouldn't grow with the
+ * fleet.
+ *
+ * filtered pre-evaluates the incident with a DeferredIncidentFilter first, and only
+ * executes the session for the incidents it doesn't defer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeferredIncidentBenchmark {
+
+    private static final int INCIDENTS = 64;
+
+    @Param({ "100", "1000", "10000" })
+    public int fleetSize;
+
+    private StatelessKieSession session;
+
+    private Responders responders;
+
+    private Incident[] incidents;
+
+    private IncidentPriority[] priorities;
+
+    private DeferredIncidentFilter filter;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        KieContainer container = KieServices.Factory.get().newKieClasspathContainer();
+        session = container.newStatelessKieSession("cajun-navy-ksession");
+        responders = Fleets.responders(fleetSize, 42);
+        incidents = new Incident[INCIDENTS];
+        priorities = new IncidentPriority[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            incidents[i] = Fleets.incident("incident" + i, i);
+            priorities[i] = Fleets.deferredPriority(incidents[i].getId());
+        }
+        filter = new DeferredIncidentFilter();
+    }
+
+    @Benchmark
+    public ExecutionResults deferred() {
+        return execute(next++ % INCIDENTS);
+    }
+
+    @Benchmark
+    public Object filtered() {
+        int i = next++ % INCIDENTS;
+        DeferredIncidentFilter.Result result = filter.evaluate(priorities[i], responders.getResponders().size());
+        if (result == DeferredIncidentFilter.Result.DEFERRED) {
+            return result;
+        }
+        return execute(i);
+    }
+
+    private ExecutionResults execute(int i) {
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incidents[i]));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(priorities[i]));
+        commands.add(CommandFactory.newInsert(new Mission()));
+        commands.add(CommandFactory.newFireAllRules());
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(Mission.class), "mission"));
+        return session.execute(CommandFactory.newBatchExecution(commands));
+    }
+}
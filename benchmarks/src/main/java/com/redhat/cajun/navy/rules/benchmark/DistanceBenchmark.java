@@ -0,0 +1,95 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.DistanceHelper;
+import com.redhat.cajun.navy.rules.GeoPosition;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Responder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Distances from one incident to a whole fleet: the BigDecimal helper called once per
+ * responder, as the rules used to, against the batch kernel on cached radians in each
+ * distance mode. The scalar benchmark doesn't use the mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int fleetSize;
+
+    @Param({ "HAVERSINE", "FAST_HAVERSINE", "EQUIRECTANGULAR" })
+    public DistanceHelper.Mode mode;
+
+    private Incident incident;
+
+    private BigDecimal[] responderLats;
+
+    private BigDecimal[] responderLons;
+
+    private GeoPosition from;
+
+    private double[] lats;
+
+    private double[] lons;
+
+    private double[] cosLats;
+
+    private double[] distances;
+
+    @Setup
+    public void setup() {
+        incident = Fleets.incident("incident", 1);
+        from = GeoPosition.of(incident.getLatitude(), incident.getLongitude());
+
+        List<Responder> responders = Fleets.responders(fleetSize, 42).getResponders();
+        responderLats = new BigDecimal[fleetSize];
+        responderLons = new BigDecimal[fleetSize];
+        lats = new double[fleetSize];
+        lons = new double[fleetSize];
+        cosLats = new double[fleetSize];
+        distances = new double[fleetSize];
+        for (int i = 0; i < fleetSize; i++) {
+            Responder responder = responders.get(i);
+            responderLats[i] = responder.getLatitude();
+            responderLons[i] = responder.getLongitude();
+            GeoPosition position = GeoPosition.of(responder.getLatitude(), responder.getLongitude());
+            lats[i] = position.getLatitude();
+            lons[i] = position.getLongitude();
+            cosLats[i] = position.getCosLatitude();
+        }
+    }
+
+    @Benchmark
+    public double[] scalarBigDecimal() {
+        for (int i = 0; i < fleetSize; i++) {
+            distances[i] = DistanceHelper.calculateDistance(incident.getLatitude(), responderLats[i],
+                    incident.getLongitude(), responderLons[i]);
+        }
+        return distances;
+    }
+
+    @Benchmark
+    public double[] batch() {
+        DistanceHelper.calculateDistances(from, lats, lons, cosLats, distances, fleetSize, mode);
+        return distances;
+    }
+}
@@ -0,0 +1,95 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.ResponderIndex;
+import com.redhat.cajun.navy.rules.ResponderSearch;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Responders found for clustered flood incidents by a ResponderIndex, as in a
+ * stateful session, with and without its EligibilityCache, while one Responder in
+ * moveEvery moves between the incidents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EligibilityCacheBenchmark {
+
+    private static final int INCIDENTS = 1024;
+
+    @Param({ "1000", "10000" })
+    public int fleetSize;
+
+    @Param({ "0", "1024" })
+    public int cacheSize;
+
+    @Param({ "10" })
+    public int moveEvery;
+
+    private ResponderIndex index;
+
+    private ResponderSearch search;
+
+    private Incident[] incidents;
+
+    private Responder[] moves;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        Responders responders = Fleets.responders(fleetSize, 42);
+        index = new ResponderIndex(responders.getResponders());
+        index.getEligibilityCache().setMaxSize(cacheSize);
+        search = new ResponderSearch(10000, 200000, 0);
+        Random random = new Random(7);
+        incidents = new Incident[INCIDENTS];
+        moves = new Responder[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            // a few neighbourhoods around the center of the fleet
+            int cluster = random.nextInt(4);
+            Incident incident = new Incident();
+            incident.setId("incident" + i);
+            incident.setNumPeople(1 + random.nextInt(8));
+            incident.setLatitude(BigDecimal.valueOf(Fleets.CENTER_LAT + 0.2 * cluster + random.nextGaussian() * 0.02));
+            incident.setLongitude(BigDecimal.valueOf(Fleets.CENTER_LON - 0.2 * cluster + random.nextGaussian() * 0.02));
+            incidents[i] = incident;
+            Responder moved = responders.getResponders().get(random.nextInt(fleetSize));
+            Responder responder = new Responder();
+            responder.setId(moved.getId());
+            responder.setBoatCapacity(moved.getBoatCapacity());
+            responder.setLatitude(moved.getLatitude().add(BigDecimal.valueOf(random.nextGaussian() * 0.01)));
+            responder.setLongitude(moved.getLongitude().add(BigDecimal.valueOf(random.nextGaussian() * 0.01)));
+            moves[i] = responder;
+        }
+    }
+
+    @Benchmark
+    public List<ResponderIndex.Candidate> findNear() {
+        int i = next++ % INCIDENTS;
+        if (i % moveEvery == 0) {
+            index.put(moves[i]);
+        }
+        return index.findNear(incidents[i], search);
+    }
+}
@@ -0,0 +1,105 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import com.redhat.cajun.navy.rules.model.Destination;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Responders;
+
+/**
+ * Synthetic, reproducible workloads for the benchmarks.
+ *
+ * Responders are scattered over roughly 4 x 4 degrees around the incident area,
+ * which is about the size of the coastal region covered during a storm surge.
+ */
+public final class Fleets {
+
+    static final double CENTER_LAT = 34.0;
+    static final double CENTER_LON = -77.0;
+    static final double SPREAD = 2.0;
+
+    private Fleets() {
+    }
+
+    public static Responders responders(int size, long seed) {
+        Random random = new Random(seed);
+        Responders responders = new Responders();
+        for (int i = 0; i < size; i++) {
+            Responder responder = new Responder();
+            responder.setId("responder" + i);
+            responder.setBoatCapacity(1 + random.nextInt(12));
+            responder.setHasMedical(random.nextInt(4) == 0);
+            responder.setPerson(random.nextInt(10) == 0);
+            responder.setLatitude(coordinate(CENTER_LAT, random));
+            responder.setLongitude(coordinate(CENTER_LON, random));
+            responders.add(responder);
+        }
+        return responders;
+    }
+
+    public static Incident incident(String id, long seed) {
+        Random random = new Random(seed);
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setNumPeople(1 + random.nextInt(6));
+        incident.setMedicalNeeded(random.nextInt(3) == 0);
+        incident.setLatitude(coordinate(CENTER_LAT, random));
+        incident.setLongitude(coordinate(CENTER_LON, random));
+        incident.setReportedTime(System.currentTimeMillis());
+        incident.setReporterId("reporter" + seed);
+        return incident;
+    }
+
+    /**
+     * An IncidentPriority at the average priority, so the incident is always
+     * considered for assignment.
+     */
+    public static IncidentPriority priority(String incidentId) {
+        IncidentPriority priority = new IncidentPriority();
+        priority.setIncidentId(incidentId);
+        priority.setPriority(new BigDecimal(10));
+        priority.setAveragePriority(new BigDecimal(10));
+        priority.setIncidents(new BigDecimal(1));
+        priority.setEscalated(false);
+        priority.setEscalatedIncidents(BigDecimal.ZERO);
+        return priority;
+    }
+
+    /**
+     * An IncidentPriority below the average priority with more incidents waiting than
+     * responders, so the incident is always deferred.
+     */
+    public static IncidentPriority deferredPriority(String incidentId) {
+        IncidentPriority priority = new IncidentPriority();
+        priority.setIncidentId(incidentId);
+        priority.setPriority(new BigDecimal(1));
+        priority.setAveragePriority(new BigDecimal(10));
+        priority.setIncidents(new BigDecimal(100000));
+        priority.setEscalated(false);
+        priority.setEscalatedIncidents(BigDecimal.ZERO);
+        return priority;
+    }
+
+    public static Destinations destinations(int size, long seed) {
+        Random random = new Random(seed);
+        Destinations destinations = new Destinations();
+        for (int i = 0; i < size; i++) {
+            Destination destination = new Destination();
+            destination.setName("destination" + i);
+            destination.setLatitude(coordinate(CENTER_LAT, random));
+            destination.setLongitude(coordinate(CENTER_LON, random));
+            destinations.add(destination);
+        }
+        return destinations;
+    }
+
+    private static BigDecimal coordinate(double center, Random random) {
+        double value = center + (random.nextDouble() - 0.5) * SPREAD * 2;
+        return new BigDecimal(value).setScale(5, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,136 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.MissionAssignment;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.ClassObjectFilter;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the cajun-navy-ksession the same way IncidentResponderAssignmentRulesTest does:
+ * insert an Incident, the Responders and a Mission, fire all rules and get the
+ * MissionAssignment and Mission objects back.
+ *
+ * The sample time mode reports the per call latency percentiles. Run it with the gc
+ * profiler to get the allocation rate per call (gc.alloc.rate.norm):
+ *
+ *   mvn -f benchmarks/pom.xml package
+ *   java -jar benchmarks/target/benchmarks.jar IncidentResponderAssignmentBenchmark -prof gc
+ *
+ * The calls, rulesFired and assigned counters are reported in the average time mode
+ * (JMH doesn't support them in the sample time mode). They are totals for the iteration,
+ * so rulesFired / calls is the number of rule firings per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.SampleTime, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncidentResponderAssignmentBenchmark {
+
+    private static final int INCIDENTS = 64;
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int fleetSize;
+
+    @Param({ "false", "true" })
+    public boolean priorityAndDestinations;
+
+    @Param({ "10" })
+    public int destinationCount;
+
+    private StatelessKieSession session;
+
+    private Responders responders;
+
+    private Incident[] incidents;
+
+    private IncidentPriority[] priorities;
+
+    private Destinations destinations;
+
+    private int next;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Firings {
+
+        public long calls;
+
+        public long rulesFired;
+
+        public long assigned;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            calls = 0;
+            rulesFired = 0;
+            assigned = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        KieContainer container = KieServices.Factory.get().newKieClasspathContainer();
+        session = container.newStatelessKieSession("cajun-navy-ksession");
+        responders = Fleets.responders(fleetSize, 42);
+        incidents = new Incident[INCIDENTS];
+        priorities = new IncidentPriority[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            incidents[i] = Fleets.incident("incident" + i, i);
+            priorities[i] = Fleets.priority(incidents[i].getId());
+        }
+        destinations = Fleets.destinations(destinationCount, 42);
+    }
+
+    @Benchmark
+    public ExecutionResults assign(Firings firings) {
+        int i = next++ % INCIDENTS;
+
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incidents[i]));
+        commands.add(CommandFactory.newInsert(responders));
+        if (priorityAndDestinations) {
+            commands.add(CommandFactory.newInsert(priorities[i]));
+            commands.add(CommandFactory.newInsert(destinations));
+        }
+        commands.add(CommandFactory.newInsert(new Mission()));
+        commands.add(CommandFactory.newFireAllRules("fired"));
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(MissionAssignment.class), "missionassignment"));
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(Mission.class), "mission"));
+
+        ExecutionResults results = session.execute(CommandFactory.newBatchExecution(commands));
+        firings.calls++;
+        firings.rulesFired += (Integer) results.getValue("fired");
+        Mission mission = (Mission) ((List<?>) results.getValue("mission")).get(0);
+        firings.assigned += mission.getStatus() == Status.ASSIGNED ? 1 : 0;
+        return results;
+    }
+}
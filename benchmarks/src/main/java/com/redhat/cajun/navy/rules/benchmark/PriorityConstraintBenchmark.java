@@ -0,0 +1,160 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.redhat.cajun.navy.rules.ResponderIndex;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import org.kie.api.KieBase;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.utils.KieHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the AssignmentPredicate rules alone, in a session of their own fed with the
+ * incidents and their IncidentPriorities: the rules as they used to be, with their
+ * constraints on the BigDecimal fields of the IncidentPriority, against the rules of
+ * the kjar, which gate the IncidentPriority with DerivedPriority.isAssignable in their
+ * constraint, on primitives, without inserting nor joining a fact.
+ *
+ * The old rules are in AssignmentPredicateBigDecimal.drl, the new ones are taken from
+ * the DRL of the kjar. The end to end effect is in IncidentResponderAssignmentBenchmark
+ * with priorityAndDestinations.
+ *
+ *   java -jar benchmarks/target/benchmarks.jar PriorityConstraintBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriorityConstraintBenchmark {
+
+    private static final String KJAR_DRL = "com.redhat.cajun.navy.rules/IncidentResponderAssignment.drl";
+
+    private static final String BIG_DECIMAL_DRL = "AssignmentPredicateBigDecimal.drl";
+
+    private static final Pattern HEADER = Pattern.compile("(?s)^.*?(?=^declare )", Pattern.MULTILINE);
+
+    private static final Pattern PREDICATE = Pattern.compile("(?s)^declare AssignmentPredicate\\b.*?^end$",
+            Pattern.MULTILINE);
+
+    private static final Pattern RULE = Pattern.compile("(?s)^rule \"([^\"]*)\".*?^end$", Pattern.MULTILINE);
+
+    private static final int RESPONDERS = 1000;
+
+    @Param({"1", "100"})
+    private int incidents;
+
+    private KieBase bigDecimalRules;
+
+    private KieBase derivedRules;
+
+    private ResponderIndex index;
+
+    private Incident[] incidentFacts;
+
+    private IncidentPriority[] priorities;
+
+    @Setup
+    public void setup() throws IOException {
+        bigDecimalRules = new KieHelper()
+                .addContent(read(PriorityConstraintBenchmark.class.getResourceAsStream(BIG_DECIMAL_DRL)), ResourceType.DRL)
+                .build();
+        derivedRules = new KieHelper().addContent(derivedPredicateRules(), ResourceType.DRL).build();
+        index = new ResponderIndex(Fleets.responders(RESPONDERS, 42).getResponders());
+
+        Random random = new Random(42);
+        incidentFacts = new Incident[incidents];
+        priorities = new IncidentPriority[incidents];
+        for (int i = 0; i < incidents; i++) {
+            incidentFacts[i] = Fleets.incident("incident" + i, i);
+            IncidentPriority priority = new IncidentPriority();
+            priority.setIncidentId("incident" + i);
+            priority.setPriority(new BigDecimal(random.nextInt(20)));
+            priority.setAveragePriority(new BigDecimal(random.nextInt(200)).movePointLeft(1));
+            priority.setIncidents(new BigDecimal(random.nextInt(2000)));
+            priority.setEscalated(random.nextBoolean());
+            priority.setEscalatedIncidents(new BigDecimal(random.nextInt(3)));
+            priorities[i] = priority;
+        }
+    }
+
+    @Benchmark
+    public int bigDecimal() {
+        return fire(bigDecimalRules);
+    }
+
+    @Benchmark
+    public int derived() {
+        return fire(derivedRules);
+    }
+
+    private int fire(KieBase kieBase) {
+        KieSession session = kieBase.newKieSession();
+        try {
+            session.insert(index);
+            for (int i = 0; i < incidents; i++) {
+                session.insert(incidentFacts[i]);
+                session.insert(priorities[i]);
+            }
+            return session.fireAllRules();
+        } finally {
+            session.dispose();
+        }
+    }
+
+    /**
+     * The package and imports of the DRL of the kjar, the AssignmentPredicate and the
+     * rules creating the AssignmentPredicates.
+     */
+    private static String derivedPredicateRules() throws IOException {
+        String drl = read(PriorityConstraintBenchmark.class.getClassLoader().getResourceAsStream(KJAR_DRL));
+        StringBuilder rules = new StringBuilder();
+        Matcher header = HEADER.matcher(drl);
+        Matcher predicate = PREDICATE.matcher(drl);
+        if (!header.find() || !predicate.find()) {
+            throw new IllegalStateException("No AssignmentPredicate in " + KJAR_DRL);
+        }
+        rules.append(header.group()).append(predicate.group()).append("\n\n");
+        Matcher rule = RULE.matcher(drl);
+        while (rule.find()) {
+            String name = rule.group(1);
+            if (name.startsWith("Create a AssignmentPredicate")) {
+                rules.append(rule.group()).append("\n\n");
+            }
+        }
+        return rules.toString();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        if (in == null) {
+            throw new IOException("DRL not found on the classpath");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.runtime.ScoringWeightsReloader;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The stateless assignment with the weights of a ScoringWeightsReloader, while the
+ * table is rewritten every 50 milliseconds in the background or not at all. The
+ * percentiles of both should be the same: publishing new weights doesn't stop or slow
+ * down the executions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringWeightsReloadBenchmark {
+
+    private static final int INCIDENTS = 64;
+
+    private static final String[] TABLES = {
+            "medical,,100\nspare capacity,4,25\nspare capacity,2,25\nspare capacity,0,50\n"
+                    + "distance,5000,100\ndistance,10000,75\ndistance,15000,50\ndistance,,25\nperson,,100\n",
+            "medical,,150\nspare capacity,4,20\nspare capacity,0,60\n"
+                    + "distance,2500,120\ndistance,10000,80\ndistance,,20\nperson,,80\n" };
+
+    @Param({ "false", "true" })
+    public boolean reload;
+
+    @Param({ "1000" })
+    public int fleetSize;
+
+    private StatelessKieSession session;
+
+    private Responders responders;
+
+    private Incident[] incidents;
+
+    private Path table;
+
+    private ScoringWeightsReloader reloader;
+
+    private Thread writer;
+
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        session = KieServices.Factory.get().newKieClasspathContainer().newStatelessKieSession("cajun-navy-ksession");
+        responders = Fleets.responders(fleetSize, 42);
+        incidents = new Incident[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            incidents[i] = Fleets.incident("incident" + i, i);
+        }
+
+        table = Files.createTempFile("scoring-weights", ".csv");
+        write(0);
+        reloader = new ScoringWeightsReloader(table);
+        if (reload) {
+            reloader.start(10);
+            writer = new Thread(() -> {
+                try {
+                    for (int i = 1; !Thread.currentThread().isInterrupted(); i++) {
+                        write(i);
+                        Thread.sleep(50);
+                    }
+                } catch (IOException | InterruptedException e) {
+                    // stopped
+                }
+            }, "scoring-weights-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private void write(int version) throws IOException {
+        Files.write(table, TABLES[version % TABLES.length].getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(table, FileTime.fromMillis(1000L * (version + 1)));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (writer != null) {
+            writer.interrupt();
+            writer.join();
+        }
+        reloader.close();
+        Files.delete(table);
+    }
+
+    @Benchmark
+    public Mission assign() {
+        Mission mission = new Mission();
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incidents[next++ % INCIDENTS]));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(reloader.getWeights()));
+        commands.add(CommandFactory.newInsert(mission));
+        commands.add(CommandFactory.newFireAllRules());
+        session.execute(CommandFactory.newBatchExecution(commands));
+        return mission;
+    }
+}
@@ -0,0 +1,98 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.runtime.AssignmentSessionPool;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The same incident and Responders evaluated with the stateless cajun-navy-ksession,
+ * which creates a session for every execution, and with an AssignmentSessionPool.
+ * Run it with the gc profiler to compare the garbage per call (gc.alloc.rate.norm):
+ *
+ *   java -jar benchmarks/target/benchmarks.jar SessionPoolBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(2)
+public class SessionPoolBenchmark {
+
+    private static final int INCIDENTS = 64;
+
+    @Param({ "10", "1000" })
+    public int fleetSize;
+
+    private StatelessKieSession stateless;
+
+    private AssignmentSessionPool pool;
+
+    private Responders responders;
+
+    private Incident[] incidents;
+
+    @State(Scope.Thread)
+    public static class Next {
+
+        int next;
+    }
+
+    @Setup
+    public void setup() {
+        KieContainer container = KieServices.Factory.get().newKieClasspathContainer();
+        stateless = container.newStatelessKieSession("cajun-navy-ksession");
+        pool = new AssignmentSessionPool(container, 2, 1);
+        responders = Fleets.responders(fleetSize, 42);
+        incidents = new Incident[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            incidents[i] = Fleets.incident("incident" + i, i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public Mission stateless(Next next) {
+        Mission mission = new Mission();
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incidents[next.next++ % INCIDENTS]));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(mission));
+        commands.add(CommandFactory.newFireAllRules());
+        stateless.execute(CommandFactory.newBatchExecution(commands));
+        return mission;
+    }
+
+    @Benchmark
+    public Mission pooled(Next next) {
+        return pool.assign(incidents[next.next++ % INCIDENTS], null, responders, null, new Mission());
+    }
+}
@@ -0,0 +1,80 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.DestinationIndex;
+import com.redhat.cajun.navy.rules.ShelterLoad;
+import com.redhat.cajun.navy.rules.model.Destination;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The routing of one mission to a shelter: the nearest Destination, and the cheapest
+ * Destination with room of a ShelterLoad where most shelters are nearly full. The
+ * routed drop-off is cancelled right away, so the load stays the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShelterRoutingBenchmark {
+
+    private static final int INCIDENTS = 64;
+
+    @Param({ "10", "100", "1000" })
+    public int shelters;
+
+    private DestinationIndex index;
+
+    private ShelterLoad load;
+
+    private Incident[] incidents;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        Destinations destinations = Fleets.destinations(shelters, 42);
+        index = new DestinationIndex(destinations.getDestinations());
+        load = new ShelterLoad();
+        Random random = new Random(42);
+        for (Destination destination : destinations.getDestinations()) {
+            int capacity = 50 + random.nextInt(100);
+            load.setCapacity(destination.getName(), capacity);
+            load.setOccupancy(destination.getName(), capacity - random.nextInt(8));
+        }
+        incidents = new Incident[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            incidents[i] = Fleets.incident("incident" + i, i);
+        }
+    }
+
+    @Benchmark
+    public Destination nearest() {
+        Incident incident = incidents[next++ % INCIDENTS];
+        return index.nearest(incident.getLatitude(), incident.getLongitude());
+    }
+
+    @Benchmark
+    public Destination route() {
+        Incident incident = incidents[next++ % INCIDENTS];
+        Destination destination = load.route(index, incident.getId(), incident.getLatitude(), incident.getLongitude(),
+                incident.getNumPeople());
+        load.cancel(incident.getId());
+        return destination;
+    }
+}
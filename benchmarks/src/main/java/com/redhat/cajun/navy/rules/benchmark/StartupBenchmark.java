@@ -0,0 +1,80 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.runtime.KieBaseBootstrap;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cold start of the kjar: the time from nothing to the KieBase, and to the first
+ * assignment, each measured once in a fresh JVM.
+ *
+ * Compare the classic kjar, where the DRL is parsed and compiled when the KieBase is
+ * built, with the executable model, where that was done by the build:
+ *
+ *   mvn install
+ *   mvn -f benchmarks/pom.xml package
+ *   java -jar benchmarks/target/benchmarks.jar StartupBenchmark
+ *
+ *   mvn install -Pexecutable-model
+ *   mvn -f benchmarks/pom.xml package -Pexecutable-model
+ *   java -jar benchmarks/target/benchmarks-executable-model.jar StartupBenchmark
+ *
+ * cachedKieBase loads the KieBase from the cache of the KieBaseBootstrap, in the
+ * temporary directory. The first fork fills the cache when it is empty, so its time is
+ * the one of kieBase.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    private static final Path CACHE = Paths.get(System.getProperty("java.io.tmpdir"), "cajun-navy-kbase-cache");
+
+    @Benchmark
+    public KieBase kieBase() {
+        KieContainer container = KieServices.Factory.get().newKieClasspathContainer();
+        return container.getKieBase("cajun-navy-kbase");
+    }
+
+    @Benchmark
+    public KieBase cachedKieBase() throws IOException {
+        KieContainer container = KieServices.Factory.get().newKieClasspathContainer();
+        return new KieBaseBootstrap(container, CACHE).getKieBase();
+    }
+
+    @Benchmark
+    public Mission firstAssignment() {
+        KieContainer container = KieServices.Factory.get().newKieClasspathContainer();
+        StatelessKieSession session = container.newStatelessKieSession("cajun-navy-ksession");
+
+        Mission mission = new Mission();
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(Fleets.incident("incident", 1)));
+        commands.add(CommandFactory.newInsert(Fleets.responders(100, 42)));
+        commands.add(CommandFactory.newInsert(mission));
+        commands.add(CommandFactory.newFireAllRules());
+        session.execute(CommandFactory.newBatchExecution(commands));
+        return mission;
+    }
+}
@@ -0,0 +1,77 @@
+package com.redhat.cajun.navy.rules.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.runtime.StatefulAssignmentSession;
+import org.kie.api.KieServices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The same workload as IncidentResponderAssignmentBenchmark, without destinations, on
+ * a StatefulAssignmentSession that holds the fleet between incidents. Compare it with
+ * the priorityAndDestinations=false results of the stateless benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatefulAssignmentBenchmark {
+
+    private static final int INCIDENTS = 64;
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int fleetSize;
+
+    @Param({ "false", "true" })
+    public boolean priority;
+
+    private StatefulAssignmentSession session;
+
+    private Incident[] incidents;
+
+    private IncidentPriority[] priorities;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        session = new StatefulAssignmentSession(KieServices.Factory.get().newKieClasspathContainer());
+        for (Responder responder : Fleets.responders(fleetSize, 42).getResponders()) {
+            session.putResponder(responder);
+        }
+        incidents = new Incident[INCIDENTS];
+        priorities = new IncidentPriority[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) {
+            incidents[i] = Fleets.incident("incident" + i, i);
+            priorities[i] = Fleets.priority(incidents[i].getId());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+    }
+
+    @Benchmark
+    public Mission assign() {
+        int i = next++ % INCIDENTS;
+        return session.assign(incidents[i], priority ? priorities[i] : null, null, new Mission());
+    }
+}
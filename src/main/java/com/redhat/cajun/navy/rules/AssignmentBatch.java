@@ -0,0 +1,92 @@
+package com.redhat.cajun.navy.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.MissionAssignment;
+import com.redhat.cajun.navy.rules.model.PotentialMissionAssignments;
+
+/**
+ * The requested Missions of a batch of incidents, with the MissionAssignments
+ * partitioned per incident.
+ *
+ * Each Mission carries the id of its incident. The batch is assigned by an
+ * AssignmentSolver, greedy by default, and a Responder gets at most one Mission.
+ */
+public class AssignmentBatch {
+
+	static final Comparator<MissionAssignment> BEST_FIRST = Comparator
+			.comparingInt(MissionAssignment::getCompatibilityScore).reversed();
+
+	private final List<Mission> missions;
+
+	private final Map<String, List<MissionAssignment>> assignments = new HashMap<>();
+
+	private boolean assigned;
+
+	public AssignmentBatch(List<Mission> missions, List<MissionAssignment> assignments) {
+		this.missions = missions;
+		Set<String> incidents = new HashSet<>();
+		for (Mission mission : missions) {
+			incidents.add(mission.getIncidentId());
+		}
+		for (MissionAssignment assignment : assignments) {
+			String incident = assignment.getIncident().getId();
+			if (incidents.contains(incident)) {
+				this.assignments.computeIfAbsent(incident, k -> new ArrayList<>()).add(assignment);
+			}
+		}
+		for (List<MissionAssignment> partition : this.assignments.values()) {
+			partition.sort(BEST_FIRST);
+		}
+	}
+
+	public List<Mission> getMissions() {
+		return missions;
+	}
+
+	/**
+	 * @return the MissionAssignments of the incident, best first
+	 */
+	public List<MissionAssignment> getAssignments(String incidentId) {
+		List<MissionAssignment> partition = assignments.get(incidentId);
+		return partition == null ? Collections.<MissionAssignment>emptyList() : partition;
+	}
+
+	public boolean isAssigned() {
+		return assigned;
+	}
+
+	/**
+	 * Assign the Missions with the GreedyAssignmentSolver.
+	 */
+	public void assign() {
+		assign(new GreedyAssignmentSolver());
+	}
+
+	/**
+	 * Assign the Missions as solved by the solver. The Missions left without a
+	 * Responder are unassigned.
+	 */
+	public void assign(AssignmentSolver solver) {
+		MissionAssignment[] solution = solver.solve(this);
+		for (int i = 0; i < missions.size(); i++) {
+			assign(missions.get(i), solution[i] == null
+					? Collections.<MissionAssignment>emptyList() : Collections.singletonList(solution[i]));
+		}
+		assigned = true;
+	}
+
+	static void assign(Mission mission, List<MissionAssignment> assignment) {
+		PotentialMissionAssignments potential = new PotentialMissionAssignments(new ArrayList<>(assignment));
+		potential.defaultPrioritization();
+		potential.getAssignedMission(mission);
+	}
+}
@@ -0,0 +1,21 @@
+package com.redhat.cajun.navy.rules;
+
+import com.redhat.cajun.navy.rules.model.MissionAssignment;
+
+/**
+ * Picks the MissionAssignment of each Mission of an AssignmentBatch, from the
+ * compatibility scores calculated by the rules.
+ *
+ * Insert one in the session to replace the default GreedyAssignmentSolver.
+ */
+public interface AssignmentSolver {
+
+	/***
+	 * Solve the batch without giving a Responder more than one Mission.
+	 *
+	 * @param batch
+	 * @return the chosen MissionAssignment of each Mission, in the order of the Missions
+	 * of the batch, null for the Missions left without a Responder
+	 */
+	MissionAssignment[] solve(AssignmentBatch batch);
+}
@@ -0,0 +1,184 @@
+package com.redhat.cajun.navy.rules;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.MissionAssignment;
+
+/**
+ * Global matching of the Missions of a batch with the Responders, with the auction
+ * algorithm on the sparse matrix of the MissionAssignments the rules created.
+ *
+ * The solution assigns as many Missions as possible and, among those solutions, has
+ * the highest total compatibility score. Each Mission bids for the Responder that is
+ * worth the most to it at the current prices, and a Mission for which every Responder
+ * became too expensive is left without one.
+ *
+ * When the time budget runs out the auction stops, and the Missions without a
+ * Responder yet are completed greedily with the Responders left.
+ */
+public class AuctionAssignmentSolver implements AssignmentSolver {
+
+	public static final long DEFAULT_TIME_BUDGET = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private static final int UNASSIGNED = -1;
+
+	private static final int DUMMY = -2;
+
+	private final long timeBudget;
+
+	public AuctionAssignmentSolver() {
+		this(DEFAULT_TIME_BUDGET);
+	}
+
+	/**
+	 * @param timeBudget the time budget in nanoseconds
+	 */
+	public AuctionAssignmentSolver(long timeBudget) {
+		this.timeBudget = timeBudget;
+	}
+
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	@Override
+	public MissionAssignment[] solve(AssignmentBatch batch) {
+		long deadline = System.nanoTime() + timeBudget;
+		List<Mission> missions = batch.getMissions();
+		int n = missions.size();
+
+		// the sparse matrix: the Responders and the scores of the MissionAssignments of each Mission
+		Map<String, Integer> responders = new HashMap<>();
+		MissionAssignment[][] edges = new MissionAssignment[n][];
+		int[][] objects = new int[n][];
+		int minScore = Integer.MAX_VALUE;
+		int maxScore = Integer.MIN_VALUE;
+		for (int i = 0; i < n; i++) {
+			List<MissionAssignment> assignments = batch.getAssignments(missions.get(i).getIncidentId());
+			edges[i] = assignments.toArray(new MissionAssignment[0]);
+			objects[i] = new int[edges[i].length];
+			for (int k = 0; k < edges[i].length; k++) {
+				Integer index = responders.computeIfAbsent(edges[i][k].getResponder().getId(), id -> responders.size());
+				objects[i][k] = index;
+				minScore = Math.min(minScore, edges[i][k].getCompatibilityScore());
+				maxScore = Math.max(maxScore, edges[i][k].getCompatibilityScore());
+			}
+		}
+		MissionAssignment[] solution = new MissionAssignment[n];
+		if (responders.isEmpty()) {
+			return solution;
+		}
+
+		// every assigned Mission is worth more than any score difference, so that the
+		// number of assigned Missions goes first
+		double range = (double) maxScore - minScore;
+		double offset = range * n + 1;
+		double[][] values = new double[n][];
+		for (int i = 0; i < n; i++) {
+			values[i] = new double[edges[i].length];
+			for (int k = 0; k < edges[i].length; k++) {
+				values[i][k] = edges[i][k].getCompatibilityScore() - minScore + offset;
+			}
+		}
+
+		// the increment of the bids is small enough for the solution to be optimal
+		double epsilon = 1.0 / (n + 1);
+		int[] owners = new int[responders.size()];
+		int[] chosen = new int[n];
+		boolean expired = !auction(values, objects, new double[responders.size()], owners, chosen, epsilon, deadline);
+
+		for (int i = 0; i < n; i++) {
+			if (chosen[i] >= 0) {
+				solution[i] = edges[i][chosen[i]];
+			}
+		}
+		if (expired) {
+			complete(edges, objects, owners, solution);
+		}
+		return solution;
+	}
+
+	/**
+	 * Run the auction until every Mission has a Responder or is left without one.
+	 *
+	 * @return false when the deadline passed before every Mission was settled
+	 */
+	private static boolean auction(double[][] values, int[][] objects, double[] prices, int[] owners, int[] chosen,
+			double epsilon, long deadline) {
+		Arrays.fill(owners, UNASSIGNED);
+		Arrays.fill(chosen, UNASSIGNED);
+		Deque<Integer> bidders = new ArrayDeque<>();
+		for (int i = 0; i < chosen.length; i++) {
+			bidders.add(i);
+		}
+
+		int bids = 0;
+		while (!bidders.isEmpty()) {
+			if ((++bids & 0xff) == 0 && System.nanoTime() > deadline) {
+				return false;
+			}
+			int i = bidders.poll();
+			// being left without a Responder is always an option, worth nothing
+			double best = 0;
+			double second = 0;
+			int bestEdge = DUMMY;
+			for (int k = 0; k < objects[i].length; k++) {
+				double net = values[i][k] - prices[objects[i][k]];
+				if (net > best) {
+					second = best;
+					best = net;
+					bestEdge = k;
+				} else if (net > second) {
+					second = net;
+				}
+			}
+			if (bestEdge == DUMMY) {
+				chosen[i] = DUMMY;
+				continue;
+			}
+			int object = objects[i][bestEdge];
+			prices[object] += best - second + epsilon;
+			if (owners[object] != UNASSIGNED) {
+				chosen[owners[object]] = UNASSIGNED;
+				bidders.add(owners[object]);
+			}
+			owners[object] = i;
+			chosen[i] = bestEdge;
+		}
+		return true;
+	}
+
+	/**
+	 * Give the Missions without a Responder the best of the Responders left.
+	 */
+	private static void complete(MissionAssignment[][] edges, int[][] objects, int[] owners,
+			MissionAssignment[] solution) {
+		List<int[]> left = new ArrayList<>();
+		for (int i = 0; i < edges.length; i++) {
+			if (solution[i] == null) {
+				for (int k = 0; k < edges[i].length; k++) {
+					if (owners[objects[i][k]] == UNASSIGNED) {
+						left.add(new int[] { i, k });
+					}
+				}
+			}
+		}
+		left.sort((a, b) -> Integer.compare(edges[b[0]][b[1]].getCompatibilityScore(),
+				edges[a[0]][a[1]].getCompatibilityScore()));
+		for (int[] edge : left) {
+			int object = objects[edge[0]][edge[1]];
+			if (solution[edge[0]] == null && owners[object] == UNASSIGNED) {
+				solution[edge[0]] = edges[edge[0]][edge[1]];
+				owners[object] = edge[0];
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.redhat.cajun.navy.rules;
+
+import java.math.BigDecimal;
+
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+
+/**
+ * The IncidentPriority of an Incident as primitive fields.
+ *
+ * The comparisons between the BigDecimal fields of the IncidentPriority are done once,
+ * here, and the priority gating of the AssignmentPredicate rules is evaluated on the
+ * primitives by isAssignable: in the constraint of the rule, with no fact inserted nor
+ * joined, and by the DeferredIncidentFilter, so both always agree.
+ */
+public class DerivedPriority {
+
+	private final String incidentId;
+
+	private final double priority;
+
+	private final double incidents;
+
+	private final boolean aboveAverage;
+
+	private final boolean aboveHalfAverage;
+
+	private final boolean deferred;
+
+	/***
+	 * @param incidentPriority
+	 * @param escalated whether the incident is escalated
+	 */
+	public DerivedPriority(IncidentPriority incidentPriority, boolean escalated) {
+		BigDecimal priority = incidentPriority.getPriority();
+		BigDecimal averagePriority = incidentPriority.getAveragePriority();
+		BigDecimal incidents = incidentPriority.getIncidents();
+		this.incidentId = incidentPriority.getIncidentId();
+		this.priority = priority == null ? Double.NaN : priority.doubleValue();
+		this.incidents = incidents == null ? Double.NaN : incidents.doubleValue();
+		this.aboveAverage = priority != null && averagePriority != null && priority.compareTo(averagePriority) >= 0;
+		this.aboveHalfAverage = priority != null && averagePriority != null
+				&& priority.compareTo(averagePriority.divide(BigDecimal.valueOf(2))) > 0;
+		this.deferred = !escalated && !BigDecimal.ZERO.equals(incidentPriority.getEscalatedIncidents());
+	}
+
+	public String getIncidentId() {
+		return incidentId;
+	}
+
+	public double getPriority() {
+		return priority;
+	}
+
+	/**
+	 * @return the number of incidents
+	 */
+	public double getIncidents() {
+		return incidents;
+	}
+
+	/**
+	 * @return true when the priority is greater than or equal to the average priority
+	 */
+	public boolean isAboveAverage() {
+		return aboveAverage;
+	}
+
+	/**
+	 * @return true when the priority is greater than half the average priority
+	 */
+	public boolean isAboveHalfAverage() {
+		return aboveHalfAverage;
+	}
+
+	/**
+	 * @return true when the incident isn't escalated and there are escalated incidents
+	 * in its priority zone
+	 */
+	public boolean isDeferred() {
+		return deferred;
+	}
+
+	/***
+	 * Whether the AssignmentPredicate of the incident is created: when its priority is
+	 * at least the average priority, or above 0 with fewer incidents waiting than the
+	 * Responders can take, or above 5 and up to 10 and above half the average priority,
+	 * or above 10, the last two only when the incident isn't deferred by a priority zone.
+	 *
+	 * @param incidentPriority
+	 * @param responders the number of Responders
+	 * @return false when the incident is deferred
+	 */
+	public static boolean isAssignable(IncidentPriority incidentPriority, int responders) {
+		return new DerivedPriority(incidentPriority, incidentPriority.isEscalated()).isAssignable(responders);
+	}
+
+	/***
+	 * Whether the AssignmentPredicate of the incident is created, see the static
+	 * isAssignable.
+	 *
+	 * @param responders the number of Responders
+	 * @return false when the incident is deferred
+	 */
+	public boolean isAssignable(int responders) {
+		return aboveAverage
+				|| priority > 0 && incidents < responders / 1.5
+				|| priority > 5 && priority <= 10 && aboveHalfAverage && !deferred
+				|| priority > 10 && !deferred;
+	}
+}
@@ -0,0 +1,416 @@
+package com.redhat.cajun.navy.rules;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.redhat.cajun.navy.rules.model.Destination;
+
+/**
+ * k-d tree over the Destination positions, so the nearest Destination to a mission is
+ * found in logarithmic time instead of comparing the distance of every Destination
+ * with the distance of every other one.
+ *
+ * The positions are converted once, when they are added, to points on the unit
+ * sphere. The straight line distance between two such points grows with their
+ * great-circle distance, so the nearest point is also the nearest Destination by
+ * DistanceHelper.calculateDistance, and the tree needs no trigonometry to search.
+ * Destinations without a position are ignored. When two Destinations are as near,
+ * the one added first is returned.
+ *
+ * The Destinations are never modified, so any number of missions can look for their
+ * nearest Destination. The tree is built again on the first lookup after an add.
+ *
+ * The lookups are memoised per grid cell of the ResponderIndex: the first lookup in a
+ * cell collects the Destinations that can be the nearest to some position in the cell,
+ * usually one or two, and the next incidents in the cell only compare those. The
+ * nearest Destination is still the exact one for each position.
+ *
+ * With a ShelterLoad, the subtrees of the tree are searched nearest first from a
+ * priority queue, until the next subtree is farther than the cheapest Destination with
+ * room found so far.
+ *
+ * The index isn't thread safe.
+ */
+public class DestinationIndex {
+
+	private static final int DIMENSIONS = 3;
+
+	private static final Comparator<Subtree> BY_BOUND = Comparator.comparingDouble(Subtree::getBound);
+
+	private Destination[] destinations = new Destination[4];
+
+	// the unit vector of each Destination, DIMENSIONS values each
+	private double[] points = new double[4 * DIMENSIONS];
+
+	// the Destinations in the order of the tree, by the order they were added
+	private int[] tree = new int[0];
+
+	// the Destinations that can be the nearest in a grid cell, by the order they were added
+	private final Map<Long, int[]> cells = new HashMap<>();
+
+	private int size;
+
+	public DestinationIndex() {
+		this(Collections.<Destination>emptyList());
+	}
+
+	public DestinationIndex(Collection<Destination> destinations) {
+		for (Destination destination : destinations) {
+			add(destination);
+		}
+	}
+
+	/**
+	 * Add the Destination, ignored when it has no position.
+	 */
+	public void add(Destination destination) {
+		GeoPosition position = GeoPosition.of(destination.getLatitude(), destination.getLongitude());
+		if (position == null) {
+			return;
+		}
+		if (size == destinations.length) {
+			destinations = Arrays.copyOf(destinations, size * 2);
+			points = Arrays.copyOf(points, size * 2 * DIMENSIONS);
+		}
+		destinations[size] = destination;
+		point(position, points, size * DIMENSIONS);
+		size++;
+		cells.clear();
+	}
+
+	/**
+	 * @return the number of Destinations in the index
+	 */
+	public int size() {
+		return size;
+	}
+
+	/***
+	 * @param latitude
+	 * @param longitude
+	 * @return the nearest Destination, or null when the index is empty or the position
+	 * is missing
+	 */
+	public Destination nearest(BigDecimal latitude, BigDecimal longitude) {
+		GeoPosition position = GeoPosition.of(latitude, longitude);
+		return position == null ? null : nearest(position);
+	}
+
+	/***
+	 * @param position
+	 * @return the nearest Destination, or null when the index is empty
+	 */
+	public Destination nearest(GeoPosition position) {
+		if (size == 0) {
+			return null;
+		}
+		if (tree.length != size) {
+			build();
+		}
+		int latCell = ResponderIndex.cell(position.getLatitudeDegrees());
+		int lonCell = ResponderIndex.cell(position.getLongitudeDegrees());
+		Long key = ResponderIndex.key(latCell, lonCell);
+		int[] candidates = cells.get(key);
+		if (candidates == null) {
+			candidates = candidates(latCell, lonCell);
+			cells.put(key, candidates);
+		}
+
+		double[] query = new double[DIMENSIONS];
+		point(position, query, 0);
+		int nearest = -1;
+		double shortest = Double.MAX_VALUE;
+		for (int candidate : candidates) {
+			double distance = distance(candidate, query);
+			if (distance < shortest) {
+				shortest = distance;
+				nearest = candidate;
+			}
+		}
+		return destinations[nearest];
+	}
+
+	/***
+	 * @param position
+	 * @param load
+	 * @param people
+	 * @return the Destination with the lowest ShelterLoad cost, the nearest one when
+	 * none has room, or null when the index is empty
+	 */
+	Destination route(GeoPosition position, ShelterLoad load, int people) {
+		if (size == 0) {
+			return null;
+		}
+		if (tree.length != size) {
+			build();
+		}
+		double[] query = new double[DIMENSIONS];
+		point(position, query, 0);
+
+		int cheapest = -1;
+		double lowest = Double.POSITIVE_INFINITY;
+		int nearest = -1;
+		double shortest = Double.POSITIVE_INFINITY;
+		PriorityQueue<Subtree> queue = new PriorityQueue<>(BY_BOUND);
+		queue.add(new Subtree(0, size, 0, 0));
+		while (!queue.isEmpty()) {
+			Subtree subtree = queue.poll();
+			// the cost is never less than the distance
+			if (meters(subtree.bound) > lowest) {
+				break;
+			}
+			int median = (subtree.from + subtree.to) >>> 1;
+			int node = tree[median];
+			double distance = distance(node, query);
+			if (distance < shortest || distance == shortest && node < nearest) {
+				shortest = distance;
+				nearest = node;
+			}
+			double cost = load.cost(destinations[node], meters(distance), people);
+			if (cost < lowest || cost == lowest && cost != Double.POSITIVE_INFINITY && node < cheapest) {
+				lowest = cost;
+				cheapest = node;
+			}
+
+			double split = query[subtree.axis] - points[node * DIMENSIONS + subtree.axis];
+			int next = (subtree.axis + 1) % DIMENSIONS;
+			double far = Math.max(subtree.bound, split * split);
+			if (median > subtree.from) {
+				queue.add(new Subtree(subtree.from, median, next, split < 0 ? subtree.bound : far));
+			}
+			if (median + 1 < subtree.to) {
+				queue.add(new Subtree(median + 1, subtree.to, next, split < 0 ? far : subtree.bound));
+			}
+		}
+		return destinations[cheapest >= 0 ? cheapest : nearest];
+	}
+
+	/**
+	 * @return the great-circle distance in meters of the square of a straight line
+	 * distance between points of the unit sphere
+	 */
+	private static double meters(double distance) {
+		return 2 * Math.asin(Math.min(1, Math.sqrt(distance) / 2)) * DistanceHelper.EARTH_RADIUS;
+	}
+
+	/**
+	 * The nearest Destination to any position in the cell is at most as far from it as
+	 * the nearest Destination to the center of the cell, so it is within the distance
+	 * of that Destination to the center plus twice the distance of the farthest
+	 * position of the cell to the center.
+	 *
+	 * @return the Destinations within that distance of the center, by the order they
+	 * were added
+	 */
+	private int[] candidates(int latCell, int lonCell) {
+		double[] center = new double[DIMENSIONS];
+		point(GeoPosition.ofDegrees((latCell + 0.5) * ResponderIndex.CELL_SIZE, (lonCell + 0.5) * ResponderIndex.CELL_SIZE),
+				center, 0);
+		double extent = 0;
+		double[] corner = new double[DIMENSIONS];
+		for (int i = 0; i <= 2; i++) {
+			for (int j = 0; j <= 2; j++) {
+				point(GeoPosition.ofDegrees((latCell + i * 0.5) * ResponderIndex.CELL_SIZE,
+						(lonCell + j * 0.5) * ResponderIndex.CELL_SIZE), corner, 0);
+				double distance = 0;
+				for (int k = 0; k < DIMENSIONS; k++) {
+					double d = corner[k] - center[k];
+					distance += d * d;
+				}
+				extent = Math.max(extent, Math.sqrt(distance));
+			}
+		}
+
+		Search search = new Search(center);
+		search(0, size, 0, search);
+		// with a margin for the rounding errors, more candidates are harmless
+		double radius = Math.sqrt(search.distance) + 2 * extent + 1e-9;
+		Range range = new Range(center, radius * radius);
+		within(0, size, 0, range);
+		int[] candidates = Arrays.copyOf(range.nodes, range.size);
+		Arrays.sort(candidates);
+		return candidates;
+	}
+
+	private double distance(int node, double[] query) {
+		double distance = 0;
+		for (int i = 0; i < DIMENSIONS; i++) {
+			double d = points[node * DIMENSIONS + i] - query[i];
+			distance += d * d;
+		}
+		return distance;
+	}
+
+	private void search(int from, int to, int axis, Search search) {
+		if (from >= to) {
+			return;
+		}
+		int median = (from + to) >>> 1;
+		int node = tree[median];
+		double distance = distance(node, search.query);
+		if (distance < search.distance || distance == search.distance && node < search.nearest) {
+			search.distance = distance;
+			search.nearest = node;
+		}
+
+		double split = search.query[axis] - points[node * DIMENSIONS + axis];
+		int next = (axis + 1) % DIMENSIONS;
+		if (split < 0) {
+			search(from, median, next, search);
+			if (split * split <= search.distance) {
+				search(median + 1, to, next, search);
+			}
+		} else {
+			search(median + 1, to, next, search);
+			if (split * split <= search.distance) {
+				search(from, median, next, search);
+			}
+		}
+	}
+
+	private void within(int from, int to, int axis, Range range) {
+		if (from >= to) {
+			return;
+		}
+		int median = (from + to) >>> 1;
+		int node = tree[median];
+		if (distance(node, range.query) <= range.distance) {
+			range.add(node);
+		}
+
+		double split = range.query[axis] - points[node * DIMENSIONS + axis];
+		int next = (axis + 1) % DIMENSIONS;
+		if (split <= 0 || split * split <= range.distance) {
+			within(from, median, next, range);
+		}
+		if (split >= 0 || split * split <= range.distance) {
+			within(median + 1, to, next, range);
+		}
+	}
+
+	private void build() {
+		tree = new int[size];
+		for (int i = 0; i < size; i++) {
+			tree[i] = i;
+		}
+		build(0, size, 0);
+	}
+
+	private void build(int from, int to, int axis) {
+		if (to - from < 2) {
+			return;
+		}
+		int median = (from + to) >>> 1;
+		select(from, to - 1, median, axis);
+		int next = (axis + 1) % DIMENSIONS;
+		build(from, median, next);
+		build(median + 1, to, next);
+	}
+
+	/**
+	 * Quickselect: put the k-th node of the range by the axis at k, with the smaller
+	 * ones before it and the larger ones after it.
+	 */
+	private void select(int left, int right, int k, int axis) {
+		while (left < right) {
+			double pivot = coordinate(tree[(left + right) >>> 1], axis);
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (coordinate(tree[i], axis) < pivot) {
+					i++;
+				}
+				while (coordinate(tree[j], axis) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int swap = tree[i];
+					tree[i++] = tree[j];
+					tree[j--] = swap;
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private double coordinate(int node, int axis) {
+		return points[node * DIMENSIONS + axis];
+	}
+
+	private static void point(GeoPosition position, double[] points, int offset) {
+		points[offset] = position.getCosLatitude() * Math.cos(position.getLongitude());
+		points[offset + 1] = position.getCosLatitude() * Math.sin(position.getLongitude());
+		points[offset + 2] = Math.sin(position.getLatitude());
+	}
+
+	private static final class Search {
+
+		final double[] query;
+
+		double distance = Double.MAX_VALUE;
+
+		int nearest = -1;
+
+		Search(double[] query) {
+			this.query = query;
+		}
+	}
+
+	private static final class Subtree {
+
+		final int from;
+
+		final int to;
+
+		final int axis;
+
+		// the square of the shortest possible distance to a point of the subtree
+		final double bound;
+
+		Subtree(int from, int to, int axis, double bound) {
+			this.from = from;
+			this.to = to;
+			this.axis = axis;
+			this.bound = bound;
+		}
+
+		double getBound() {
+			return bound;
+		}
+	}
+
+	private static final class Range {
+
+		final double[] query;
+
+		final double distance;
+
+		int[] nodes = new int[4];
+
+		int size;
+
+		Range(double[] query, double distance) {
+			this.query = query;
+			this.distance = distance;
+		}
+
+		void add(int node) {
+			if (size == nodes.length) {
+				nodes = Arrays.copyOf(nodes, size * 2);
+			}
+			nodes[size++] = node;
+		}
+	}
+}
@@ -0,0 +1,375 @@
+package com.redhat.cajun.navy.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.redhat.cajun.navy.rules.model.Responder;
+
+/**
+ * Size bounded LRU memo of the Responders of a ResponderIndex that can be eligible for
+ * an incident in a grid cell, per bucket of numbers of people and ResponderSearch, so
+ * the clustered incidents of a flood only calculate the distances to those Responders
+ * instead of searching the grid again.
+ *
+ * Each number of people up to EXACT has a bucket of its own, as a witness for a
+ * bucket needs a boat for the largest number of it, and the larger numbers are
+ * bucketed by powers of two: 16 to 31, 32 to 63 and so on. An entry holds the
+ * Responders with a boat for the smallest number of the bucket that are near enough
+ * to the cell to be found by the search from some position in it, and counts the
+ * witnesses: the Responders with a boat for the whole bucket near enough to stop the
+ * search from any position in the cell. The Responders found are still exactly the
+ * ones the search finds without the memo.
+ *
+ * The index tells the memo about every Responder added, moved or removed. A Responder
+ * near enough to a cell is added to or removed from its entries in place, and an entry
+ * is only invalidated when its last witness is removed. The Responders without a
+ * position aren't memoised.
+ *
+ * Not thread safe, like the index.
+ */
+public class EligibilityCache {
+
+	public static final int DEFAULT_SIZE = 1024;
+
+	// the largest number of people with a bucket of its own
+	static final int EXACT = 15;
+
+	private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+			if (size() > maxSize) {
+				unlink(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+	};
+
+	// the entries by cell, sharing their center
+	private final Map<Long, List<Entry>> cells = new HashMap<>();
+
+	private int maxSize;
+
+	private long hits;
+
+	private long misses;
+
+	private long invalidations;
+
+	EligibilityCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return the largest number of entries kept, 0 when nothing is memoised
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+		for (Iterator<Entry> values = entries.values().iterator(); entries.size() > maxSize;) {
+			unlink(values.next());
+			values.remove();
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of entries invalidated by the removal of their last witness
+	 */
+	public long getInvalidations() {
+		return invalidations;
+	}
+
+	public void clear() {
+		entries.clear();
+		cells.clear();
+	}
+
+	/**
+	 * @return the smallest number of people of the bucket of numPeople
+	 */
+	static int bucket(int numPeople) {
+		return numPeople <= EXACT ? numPeople : Integer.highestOneBit(numPeople);
+	}
+
+	/**
+	 * @return the largest number of people of the bucket of numPeople
+	 */
+	static int bucketEnd(int numPeople) {
+		return numPeople <= EXACT ? numPeople
+				: (int) Math.min(Integer.MAX_VALUE, 2L * Integer.highestOneBit(numPeople) - 1);
+	}
+
+	Entry get(long cell, int numPeople, ResponderSearch search) {
+		Entry entry = entries.get(new Key(cell, bucket(numPeople), search));
+		if (entry == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return entry;
+	}
+
+	void put(long cell, int numPeople, ResponderSearch search, Entry entry) {
+		if (maxSize > 0) {
+			entry.key = new Key(cell, bucket(numPeople), search);
+			Entry previous = entries.put(entry.key, entry);
+			if (previous != null) {
+				unlink(previous);
+			}
+			cells.computeIfAbsent(cell, k -> new ArrayList<>()).add(entry);
+		}
+	}
+
+	private void unlink(Entry entry) {
+		List<Entry> cell = cells.get(entry.key.cell);
+		cell.remove(entry);
+		if (cell.isEmpty()) {
+			cells.remove(entry.key.cell);
+		}
+	}
+
+	/**
+	 * Add the Responder to the entries it can be eligible in.
+	 */
+	void added(Responder responder, GeoPosition position, int capacity) {
+		for (List<Entry> cell : cells.values()) {
+			double term = term(cell.get(0).center, position);
+			double distance = -1;
+			for (Entry entry : cell) {
+				if (capacity >= entry.smallest && term <= entry.bound) {
+					if (distance < 0) {
+						distance = entry.distance(position);
+					}
+					if (distance <= entry.cover) {
+						entry.add(responder, position, capacity, distance);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove the Responder from the entries, and invalidate the entries left without a
+	 * witness.
+	 */
+	void removed(String id, GeoPosition position, int capacity) {
+		for (Iterator<List<Entry>> cells = this.cells.values().iterator(); cells.hasNext();) {
+			List<Entry> cell = cells.next();
+			double term = term(cell.get(0).center, position);
+			double distance = -1;
+			for (Iterator<Entry> values = cell.iterator(); values.hasNext();) {
+				Entry entry = values.next();
+				if (capacity >= entry.smallest && term <= entry.bound) {
+					if (distance < 0) {
+						distance = entry.distance(position);
+					}
+					if (entry.remove(id, distance) && entry.witnesses == 0 && entry.cover != Double.MAX_VALUE) {
+						values.remove();
+						entries.remove(entry.key);
+						invalidations++;
+					}
+				}
+			}
+			if (cell.isEmpty()) {
+				cells.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return the haversine term of the distance between the positions, to compare them
+	 *         to the bounds of the entries without the arctangent of the distance
+	 */
+	private static double term(GeoPosition center, GeoPosition position) {
+		double sinLat = Math.sin((position.getLatitude() - center.getLatitude()) / 2);
+		double sinLon = Math.sin((position.getLongitude() - center.getLongitude()) / 2);
+		return sinLat * sinLat + center.getCosLatitude() * position.getCosLatitude() * sinLon * sinLon;
+	}
+
+	/**
+	 * The Responders that can be eligible in a cell, with their positions in parallel
+	 * arrays, as in the cells of the index, nearest to the center first, so a search
+	 * only calculates the distances to the Responders near enough to the center.
+	 */
+	static final class Entry {
+
+		final GeoPosition center;
+
+		// the distance from the center of the Responders of the entry, Double.MAX_VALUE for all of them
+		final double cover;
+
+		// the distance from the center of the witnesses
+		final double reach;
+
+		// the haversine term of the cover and a margin, to leave out the positions beyond it cheaply
+		final double bound;
+
+		Key key;
+
+		final int smallest;
+
+		final int largest;
+
+		Responder[] responders = new Responder[4];
+
+		// the distances from the center, in ascending order
+		double[] offsets = new double[4];
+
+		double[] latitudes = new double[4];
+
+		double[] longitudes = new double[4];
+
+		double[] cosLatitudes = new double[4];
+
+		// -1 when the Responder has no boat capacity
+		int[] capacities = new int[4];
+
+		boolean[] witness = new boolean[4];
+
+		int size;
+
+		int witnesses;
+
+		Entry(GeoPosition center, double cover, double reach, int numPeople) {
+			this.center = center;
+			this.cover = cover;
+			this.reach = reach;
+			double angle = (cover + ResponderIndex.MARGIN) / (2 * DistanceHelper.EARTH_RADIUS);
+			this.bound = angle >= Math.PI / 2 ? Double.MAX_VALUE : Math.pow(Math.sin(angle), 2);
+			this.smallest = bucket(numPeople);
+			this.largest = bucketEnd(numPeople);
+		}
+
+		double distance(GeoPosition position) {
+			return DistanceHelper.calculateDistance(center, position, DistanceHelper.Mode.HAVERSINE);
+		}
+
+		/**
+		 * @return the number of Responders within the distance of the center
+		 */
+		int count(double distance) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (offsets[middle] <= distance) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		void add(Responder responder, GeoPosition position, int capacity, double distance) {
+			if (size == responders.length) {
+				int length = size * 2;
+				responders = Arrays.copyOf(responders, length);
+				offsets = Arrays.copyOf(offsets, length);
+				latitudes = Arrays.copyOf(latitudes, length);
+				longitudes = Arrays.copyOf(longitudes, length);
+				cosLatitudes = Arrays.copyOf(cosLatitudes, length);
+				capacities = Arrays.copyOf(capacities, length);
+				witness = Arrays.copyOf(witness, length);
+			}
+			int i = count(distance);
+			move(i, i + 1, size - i);
+			responders[i] = responder;
+			offsets[i] = distance;
+			latitudes[i] = position.getLatitude();
+			longitudes[i] = position.getLongitude();
+			cosLatitudes[i] = position.getCosLatitude();
+			capacities[i] = capacity;
+			witness[i] = distance <= reach && capacity >= largest;
+			if (witness[i]) {
+				witnesses++;
+			}
+			size++;
+		}
+
+		/**
+		 * Remove the Responder at the distance from the center, calculated the same way
+		 * as when it was added.
+		 */
+		boolean remove(String id, double distance) {
+			for (int i = count(Math.nextDown(distance)); i < size && offsets[i] <= distance; i++) {
+				if (Objects.equals(responders[i].getId(), id)) {
+					if (witness[i]) {
+						witnesses--;
+					}
+					move(i + 1, i, --size - i);
+					responders[size] = null;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void move(int from, int to, int length) {
+			System.arraycopy(responders, from, responders, to, length);
+			System.arraycopy(offsets, from, offsets, to, length);
+			System.arraycopy(latitudes, from, latitudes, to, length);
+			System.arraycopy(longitudes, from, longitudes, to, length);
+			System.arraycopy(cosLatitudes, from, cosLatitudes, to, length);
+			System.arraycopy(capacities, from, capacities, to, length);
+			System.arraycopy(witness, from, witness, to, length);
+		}
+	}
+
+	private static final class Key {
+
+		final long cell;
+
+		final int bucket;
+
+		final double radius;
+
+		final double maxRadius;
+
+		Key(long cell, int bucket, ResponderSearch search) {
+			this.cell = cell;
+			this.bucket = bucket;
+			this.radius = search.getRadius();
+			this.maxRadius = search.getMaxRadius();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return cell == other.cell && bucket == other.bucket && radius == other.radius
+					&& maxRadius == other.maxRadius;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * (31 * Long.hashCode(cell) + bucket) + Double.hashCode(radius)) + Double.hashCode(maxRadius);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.redhat.cajun.navy.rules;
+
+import java.util.List;
+
+/**
+ * The Responders eligible for a MissionAssignment to an Incident: near enough and
+ * with a boat that can take its number of people, nearest first.
+ *
+ * One per incident, instead of one predicate fact per Incident and Responder pair.
+ */
+public class EligibleResponders {
+
+	private final String incident;
+
+	private final List<ResponderIndex.Candidate> candidates;
+
+	public EligibleResponders(String incident, List<ResponderIndex.Candidate> candidates) {
+		this.incident = incident;
+		this.candidates = candidates;
+	}
+
+	/**
+	 * @return the id of the Incident
+	 */
+	public String getIncident() {
+		return incident;
+	}
+
+	public List<ResponderIndex.Candidate> getCandidates() {
+		return candidates;
+	}
+
+	public int size() {
+		return candidates.size();
+	}
+}
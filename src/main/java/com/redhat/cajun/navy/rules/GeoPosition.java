@@ -0,0 +1,69 @@
+package com.redhat.cajun.navy.rules;
+
+import java.math.BigDecimal;
+
+/**
+ * A position converted once to radians, with the cosine of its latitude, so distances
+ * from it can be calculated without unboxing BigDecimals or calling Math.toRadians and
+ * Math.cos again.
+ */
+public final class GeoPosition {
+
+	private final double latitude;
+
+	private final double longitude;
+
+	private final double cosLatitude;
+
+	private GeoPosition(double latitude, double longitude) {
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.cosLatitude = Math.cos(latitude);
+	}
+
+	public static GeoPosition ofDegrees(double latitude, double longitude) {
+		return new GeoPosition(Math.toRadians(latitude), Math.toRadians(longitude));
+	}
+
+	/**
+	 * @return the position, or null when the latitude or the longitude is missing
+	 */
+	public static GeoPosition of(BigDecimal latitude, BigDecimal longitude) {
+		if (latitude == null || longitude == null) {
+			return null;
+		}
+		return ofDegrees(latitude.doubleValue(), longitude.doubleValue());
+	}
+
+	/**
+	 * @return the latitude in radians
+	 */
+	public double getLatitude() {
+		return latitude;
+	}
+
+	/**
+	 * @return the longitude in radians
+	 */
+	public double getLongitude() {
+		return longitude;
+	}
+
+	public double getCosLatitude() {
+		return cosLatitude;
+	}
+
+	/**
+	 * @return the latitude in degrees
+	 */
+	public double getLatitudeDegrees() {
+		return Math.toDegrees(latitude);
+	}
+
+	/**
+	 * @return the longitude in degrees
+	 */
+	public double getLongitudeDegrees() {
+		return Math.toDegrees(longitude);
+	}
+}
@@ -0,0 +1,47 @@
+package com.redhat.cajun.navy.rules;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.MissionAssignment;
+
+/**
+ * The best scoring MissionAssignment of the whole batch goes first, then the best of
+ * the ones left, and so on. Fast, but under load it can take the only Responder that
+ * can reach one incident for another incident that had alternatives.
+ */
+public class GreedyAssignmentSolver implements AssignmentSolver {
+
+	@Override
+	public MissionAssignment[] solve(AssignmentBatch batch) {
+		List<Mission> missions = batch.getMissions();
+		MissionAssignment[] solution = new MissionAssignment[missions.size()];
+
+		Map<String, Deque<Integer>> pending = new HashMap<>();
+		for (int i = 0; i < missions.size(); i++) {
+			pending.computeIfAbsent(missions.get(i).getIncidentId(), k -> new ArrayDeque<>()).add(i);
+		}
+
+		List<MissionAssignment> all = new ArrayList<>();
+		for (String incident : pending.keySet()) {
+			all.addAll(batch.getAssignments(incident));
+		}
+		all.sort(AssignmentBatch.BEST_FIRST);
+
+		Set<String> booked = new HashSet<>();
+		for (MissionAssignment assignment : all) {
+			Deque<Integer> waiting = pending.get(assignment.getIncident().getId());
+			if (!waiting.isEmpty() && booked.add(assignment.getResponder().getId())) {
+				solution[waiting.poll()] = assignment;
+			}
+		}
+		return solution;
+	}
+}
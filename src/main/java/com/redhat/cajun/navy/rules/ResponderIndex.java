@@ -0,0 +1,507 @@
+package com.redhat.cajun.navy.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Responder;
+
+/**
+ * Grid index over the Responder positions, so the rules only look at the Responders
+ * near an Incident instead of joining every Incident with every Responder.
+ *
+ * The grid cells are CELL_SIZE degrees wide in both directions. The position of each
+ * Responder is converted once, when it is added, and stored in the parallel arrays of
+ * its cell so the distances to a whole cell are calculated in one batch. Responders
+ * without a position are kept apart and are always returned as candidates. The grid
+ * doesn't wrap around the antimeridian.
+ *
+ * The Responders are also grouped in bands by boat capacity, sorted by capacity, so
+ * the Responders that can take an incident's number of people are found with a range
+ * lookup instead of being compared one by one. Each cell keeps the largest capacity
+ * in it, and the cells that can't take the number of people are skipped.
+ *
+ * With the default haversine distances, the Responders that can be eligible for an
+ * incident are memoised per grid cell and bucket of numbers of people in an
+ * EligibilityCache, kept up to date as the Responders are added, moved and removed.
+ * The memo lives as long as the index, so with the new index of every execution of a
+ * stateless session it starts empty each time: a SharedResponderIndex inserted with
+ * the Responders keeps it between the executions.
+ *
+ * The Responders the index is built with are only indexed on its first search or
+ * change, so an index that is never searched, like the one of a session whose
+ * incidents are all deferred, only costs its size.
+ *
+ * The index isn't thread safe. When it is changed while it is a fact in a session,
+ * the session has to be told with an update.
+ */
+public class ResponderIndex {
+
+	static final double CELL_SIZE = 0.1;
+
+	static final double METERS_PER_DEGREE = DistanceHelper.EARTH_RADIUS * Math.PI / 180;
+
+	private static final Comparator<Candidate> BY_DISTANCE = Comparator.comparingDouble(Candidate::getDistance);
+
+	// the slack for the rounding of the distances in the bounds of the EligibilityCache
+	static final double MARGIN = 1;
+
+	private final Map<Long, Cell> cells = new HashMap<>();
+
+	private final NavigableMap<Integer, Map<String, Responder>> bands = new TreeMap<>();
+
+	private final NavigableMap<Integer, Map<String, Responder>> unlocated = new TreeMap<>();
+
+	private final Map<String, Placement> placements = new HashMap<>();
+
+	private final EligibilityCache cache = new EligibilityCache(EligibilityCache.DEFAULT_SIZE);
+
+	// the Responders not indexed yet
+	private Collection<Responder> pending;
+
+	private int size;
+
+	private int largestCell;
+
+	public ResponderIndex(Collection<Responder> responders) {
+		this.pending = responders;
+		this.size = responders.size();
+	}
+
+	/**
+	 * Index the Responders the index was built with.
+	 */
+	private void materialize() {
+		if (pending != null) {
+			Collection<Responder> responders = pending;
+			pending = null;
+			size = 0;
+			for (Responder responder : responders) {
+				add(responder);
+			}
+		}
+	}
+
+	public void add(Responder responder) {
+		materialize();
+		Integer capacity = responder.getBoatCapacity();
+		GeoPosition position = GeoPosition.of(responder.getLatitude(), responder.getLongitude());
+		Long key = null;
+		if (position != null) {
+			key = key(cell(position.getLatitudeDegrees()), cell(position.getLongitudeDegrees()));
+			Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+			cell.add(responder, position, capacity == null ? -1 : capacity);
+			largestCell = Math.max(largestCell, cell.size);
+			cache.added(responder, position, capacity == null ? -1 : capacity);
+		}
+		if (capacity != null) {
+			(position == null ? unlocated : bands).computeIfAbsent(capacity, k -> new LinkedHashMap<>())
+					.put(responder.getId(), responder);
+		}
+		placements.put(responder.getId(), new Placement(key, position, capacity));
+		size++;
+	}
+
+	/**
+	 * Remove the Responder with the given id.
+	 *
+	 * @return true when the Responder was in the index
+	 */
+	public boolean remove(String id) {
+		materialize();
+		Placement placement = placements.remove(id);
+		if (placement == null) {
+			return false;
+		}
+		if (placement.cell != null) {
+			Cell cell = cells.get(placement.cell);
+			if (cell.remove(id) && cell.size == 0) {
+				cells.remove(placement.cell);
+			}
+			cache.removed(id, placement.position, placement.capacity == null ? -1 : placement.capacity);
+		}
+		if (placement.capacity != null) {
+			removeFromBand(placement.cell == null ? unlocated : bands, placement.capacity, id);
+		}
+		size--;
+		return true;
+	}
+
+	private static void removeFromBand(NavigableMap<Integer, Map<String, Responder>> bands, int capacity, String id) {
+		Map<String, Responder> band = bands.get(capacity);
+		if (band != null && band.remove(id) != null && band.isEmpty()) {
+			bands.remove(capacity);
+		}
+	}
+
+	/**
+	 * Add the Responder, or replace the one with the same id when it moved or its
+	 * boat changed.
+	 */
+	public void put(Responder responder) {
+		remove(responder.getId());
+		add(responder);
+	}
+
+	/**
+	 * @return the number of Responders in the index
+	 */
+	public int size() {
+		return size;
+	}
+
+	public EligibilityCache getEligibilityCache() {
+		return cache;
+	}
+
+	/***
+	 * Find the Responders that can take the Incident's number of people, nearest first,
+	 * as configured by the ResponderSearch.
+	 *
+	 * @param incident
+	 * @param search
+	 * @return the candidate Responders for the Incident, with their distance in meters
+	 * (0 when the Incident or the Responder has no position)
+	 */
+	public List<Candidate> findNear(Incident incident, ResponderSearch search) {
+		materialize();
+		Integer numPeople = incident.getNumPeople();
+		if (numPeople == null) {
+			return Collections.emptyList();
+		}
+
+		List<Candidate> candidates;
+		GeoPosition position = GeoPosition.of(incident.getLatitude(), incident.getLongitude());
+		if (position == null) {
+			candidates = new ArrayList<>();
+			for (Map<String, Responder> band : bands.tailMap(numPeople, true).values()) {
+				for (Responder responder : band.values()) {
+					candidates.add(new Candidate(responder, 0));
+				}
+			}
+		} else if (search.getDistanceMode() == DistanceHelper.Mode.HAVERSINE && cache.getMaxSize() > 0) {
+			candidates = cached(position, numPeople, search);
+			candidates.sort(BY_DISTANCE);
+		} else {
+			double[] distances = new double[largestCell];
+			double radius = search.getRadius();
+			candidates = Collections.emptyList();
+			while (candidates.isEmpty() && radius > 0 && radius <= search.getMaxRadius()) {
+				candidates = within(position, radius, numPeople, search.getDistanceMode(), distances);
+				radius = next(radius, search);
+			}
+			if (candidates.isEmpty()) {
+				candidates = within(position, Double.MAX_VALUE, numPeople, search.getDistanceMode(), distances);
+			}
+			candidates.sort(BY_DISTANCE);
+		}
+
+		if (search.getMaxCandidates() > 0 && candidates.size() > search.getMaxCandidates()) {
+			candidates = new ArrayList<>(candidates.subList(0, search.getMaxCandidates()));
+		}
+		for (Map<String, Responder> band : unlocated.tailMap(numPeople, true).values()) {
+			for (Responder responder : band.values()) {
+				candidates.add(new Candidate(responder, 0));
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * @return the next radius of the search after radius, Double.MAX_VALUE after maxRadius
+	 */
+	private static double next(double radius, ResponderSearch search) {
+		return radius < search.getMaxRadius() ? Math.min(radius * 2, search.getMaxRadius()) : Double.MAX_VALUE;
+	}
+
+	/**
+	 * Search the Responders memoised for the cell of the position, the same way as the
+	 * grid. A Responder within a radius of the position is within the radius plus the
+	 * distance of the position from the center, so each radius only calculates the
+	 * distances to the nearer Responders not calculated yet.
+	 */
+	private List<Candidate> cached(GeoPosition position, int numPeople, ResponderSearch search) {
+		long cell = key(cell(position.getLatitudeDegrees()), cell(position.getLongitudeDegrees()));
+		EligibilityCache.Entry entry = cache.get(cell, numPeople, search);
+		if (entry == null) {
+			entry = eligible(cell, numPeople, search);
+			cache.put(cell, numPeople, search, entry);
+		}
+		double offset = entry.distance(position) + MARGIN;
+		double[] distances = new double[entry.size];
+		int calculated = 0;
+		double radius = search.getRadius();
+		List<Candidate> candidates = Collections.emptyList();
+		while (candidates.isEmpty() && radius > 0 && radius <= search.getMaxRadius()) {
+			calculated = calculate(entry, position, numPeople, distances, calculated, entry.count(radius + offset));
+			candidates = within(entry, distances, calculated, radius, numPeople);
+			radius = next(radius, search);
+		}
+		if (candidates.isEmpty()) {
+			calculated = calculate(entry, position, numPeople, distances, calculated, entry.size);
+			candidates = within(entry, distances, calculated, Double.MAX_VALUE, numPeople);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Calculate the distances to the Responders from to count that can take numPeople.
+	 *
+	 * @return count
+	 */
+	private static int calculate(EligibilityCache.Entry entry, GeoPosition position, int numPeople,
+			double[] distances, int from, int count) {
+		double lat = position.getLatitude();
+		double lon = position.getLongitude();
+		double cosLat = position.getCosLatitude();
+		for (int i = from; i < count; i++) {
+			if (entry.capacities[i] >= numPeople) {
+				distances[i] = DistanceHelper.haversine(entry.latitudes[i] - lat, entry.longitudes[i] - lon,
+						cosLat * entry.cosLatitudes[i]);
+			}
+		}
+		return Math.max(from, count);
+	}
+
+	private static List<Candidate> within(EligibilityCache.Entry entry, double[] distances, int calculated,
+			double radius, int numPeople) {
+		List<Candidate> candidates = new ArrayList<>();
+		for (int i = 0; i < calculated; i++) {
+			if (entry.capacities[i] >= numPeople && distances[i] <= radius) {
+				candidates.add(new Candidate(entry.responders[i], distances[i]));
+			}
+		}
+		return candidates;
+	}
+
+	/***
+	 * Collect the Responders that the search can find from some position in the cell,
+	 * for any number of people of the bucket of numPeople.
+	 *
+	 * Every position of the cell is within extent of its center, so a Responder within
+	 * a radius of the position is within radius + extent of the center, and a Responder
+	 * within radius - extent of the center is within the radius of every position. The
+	 * search from any position of the cell stops at the latest at the first radius with
+	 * a Responder for the whole bucket within radius - extent of the center, so the
+	 * Responders within that radius + extent are all it can find. Without such a
+	 * radius, it can find any of them.
+	 *
+	 * @param cell
+	 * @param numPeople
+	 * @param search
+	 * @return the entry of the cell
+	 */
+	private EligibilityCache.Entry eligible(long cell, int numPeople, ResponderSearch search) {
+		int latCell = (int) (cell >> 32);
+		int lonCell = (int) cell;
+		GeoPosition center = GeoPosition.ofDegrees((latCell + 0.5) * CELL_SIZE, (lonCell + 0.5) * CELL_SIZE);
+		double extent = 0;
+		for (int i = 0; i <= 1; i++) {
+			for (int j = 0; j <= 1; j++) {
+				GeoPosition corner = GeoPosition.ofDegrees((latCell + i) * CELL_SIZE, (lonCell + j) * CELL_SIZE);
+				extent = Math.max(extent, DistanceHelper.calculateDistance(center, corner, DistanceHelper.Mode.HAVERSINE));
+			}
+		}
+		extent += MARGIN;
+
+		int smallest = EligibilityCache.bucket(numPeople);
+		int largest = EligibilityCache.bucketEnd(numPeople);
+		double[] distances = new double[largestCell];
+		EligibilityCache.Entry entry = null;
+		List<Candidate> eligible = null;
+		for (double radius = search.getRadius(); radius > 0 && radius <= search.getMaxRadius(); radius = next(radius,
+				search)) {
+			List<Candidate> near = within(center, radius + extent, smallest, DistanceHelper.Mode.HAVERSINE, distances);
+			if (reaches(near, radius - extent, largest)) {
+				entry = new EligibilityCache.Entry(center, radius + extent, radius - extent, numPeople);
+				eligible = near;
+				break;
+			}
+		}
+		if (entry == null) {
+			entry = new EligibilityCache.Entry(center, Double.MAX_VALUE, -1, numPeople);
+			eligible = within(center, Double.MAX_VALUE, smallest, DistanceHelper.Mode.HAVERSINE, distances);
+		}
+		for (Candidate candidate : eligible) {
+			Responder responder = candidate.getResponder();
+			entry.add(responder, GeoPosition.of(responder.getLatitude(), responder.getLongitude()),
+					responder.getBoatCapacity(), candidate.getDistance());
+		}
+		return entry;
+	}
+
+	/**
+	 * @return true when one of the candidates within the radius can take numPeople
+	 */
+	private static boolean reaches(List<Candidate> candidates, double radius, int numPeople) {
+		for (Candidate candidate : candidates) {
+			Integer capacity = candidate.getResponder().getBoatCapacity();
+			if (candidate.getDistance() <= radius && capacity != null && capacity >= numPeople) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<Candidate> within(GeoPosition position, double radius, int numPeople, DistanceHelper.Mode mode,
+			double[] distances) {
+		List<Candidate> candidates = new ArrayList<>();
+		double lat = position.getLatitudeDegrees();
+		double lon = position.getLongitudeDegrees();
+		double latSpan = radius / METERS_PER_DEGREE;
+		double lonSpan = latSpan / Math.max(position.getCosLatitude(), 0.01);
+		int minLat = cell(lat - latSpan);
+		int maxLat = cell(lat + latSpan);
+		int minLon = cell(lon - lonSpan);
+		int maxLon = cell(lon + lonSpan);
+
+		if (latSpan >= 90 || lonSpan >= 180 || (double) (maxLat - minLat + 1) * (maxLon - minLon + 1) > cells.size()) {
+			// cheaper to look at every occupied cell than at every cell of the bounding box
+			for (Cell cell : cells.values()) {
+				collect(cell, position, radius, numPeople, mode, distances, candidates);
+			}
+		} else {
+			for (int i = minLat; i <= maxLat; i++) {
+				for (int j = minLon; j <= maxLon; j++) {
+					Cell cell = cells.get(key(i, j));
+					if (cell != null) {
+						collect(cell, position, radius, numPeople, mode, distances, candidates);
+					}
+				}
+			}
+		}
+		return candidates;
+	}
+
+	private static void collect(Cell cell, GeoPosition position, double radius, int numPeople,
+			DistanceHelper.Mode mode, double[] distances, List<Candidate> candidates) {
+		if (cell.maxCapacity < numPeople) {
+			return;
+		}
+		DistanceHelper.calculateDistances(position, cell.latitudes, cell.longitudes, cell.cosLatitudes,
+				distances, cell.size, mode);
+		for (int i = 0; i < cell.size; i++) {
+			if (distances[i] <= radius && cell.capacities[i] >= numPeople) {
+				candidates.add(new Candidate(cell.responders[i], distances[i]));
+			}
+		}
+	}
+
+	static int cell(double degrees) {
+		return (int) Math.floor(degrees / CELL_SIZE);
+	}
+
+	static long key(int latCell, int lonCell) {
+		return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+	}
+
+	/**
+	 * A Responder found near an Incident.
+	 */
+	public static final class Candidate {
+
+		private final Responder responder;
+
+		private final double distance;
+
+		Candidate(Responder responder, double distance) {
+			this.responder = responder;
+			this.distance = distance;
+		}
+
+		public Responder getResponder() {
+			return responder;
+		}
+
+		/**
+		 * @return the distance to the Incident in meters
+		 */
+		public double getDistance() {
+			return distance;
+		}
+	}
+
+	private static final class Placement {
+
+		final Long cell;
+
+		final GeoPosition position;
+
+		final Integer capacity;
+
+		Placement(Long cell, GeoPosition position, Integer capacity) {
+			this.cell = cell;
+			this.position = position;
+			this.capacity = capacity;
+		}
+	}
+
+	private static final class Cell {
+
+		Responder[] responders = new Responder[4];
+
+		double[] latitudes = new double[4];
+
+		double[] longitudes = new double[4];
+
+		double[] cosLatitudes = new double[4];
+
+		// -1 when the Responder has no boat capacity
+		int[] capacities = new int[4];
+
+		int maxCapacity = -1;
+
+		int size;
+
+		void add(Responder responder, GeoPosition position, int capacity) {
+			if (size == responders.length) {
+				int length = size * 2;
+				responders = Arrays.copyOf(responders, length);
+				latitudes = Arrays.copyOf(latitudes, length);
+				longitudes = Arrays.copyOf(longitudes, length);
+				cosLatitudes = Arrays.copyOf(cosLatitudes, length);
+				capacities = Arrays.copyOf(capacities, length);
+			}
+			responders[size] = responder;
+			latitudes[size] = position.getLatitude();
+			longitudes[size] = position.getLongitude();
+			cosLatitudes[size] = position.getCosLatitude();
+			capacities[size] = capacity;
+			maxCapacity = Math.max(maxCapacity, capacity);
+			size++;
+		}
+
+		boolean remove(String id) {
+			for (int i = 0; i < size; i++) {
+				if (Objects.equals(responders[i].getId(), id)) {
+					int capacity = capacities[i];
+					int last = --size;
+					responders[i] = responders[last];
+					latitudes[i] = latitudes[last];
+					longitudes[i] = longitudes[last];
+					cosLatitudes[i] = cosLatitudes[last];
+					capacities[i] = capacities[last];
+					responders[last] = null;
+					if (capacity == maxCapacity) {
+						maxCapacity = -1;
+						for (int j = 0; j < size; j++) {
+							maxCapacity = Math.max(maxCapacity, capacities[j]);
+						}
+					}
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
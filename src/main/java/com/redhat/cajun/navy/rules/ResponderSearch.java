@@ -0,0 +1,77 @@
+package com.redhat.cajun.navy.rules;
+
+/**
+ * How far the rules look for Responders around an Incident.
+ *
+ * Only the Responders within the radius are considered for a MissionAssignment. When
+ * none of them can take the incident's number of people the radius is doubled, up to
+ * maxRadius, after which every Responder is considered. When maxCandidates is greater
+ * than zero only the nearest maxCandidates Responders are considered. The distances
+ * are calculated with the distanceMode, exact haversine by default.
+ *
+ * Insert one in the session to override the defaults.
+ */
+public class ResponderSearch {
+
+	public static final double DEFAULT_RADIUS = 50000;
+
+	public static final double DEFAULT_MAX_RADIUS = 200000;
+
+	private double radius = DEFAULT_RADIUS;
+
+	private double maxRadius = DEFAULT_MAX_RADIUS;
+
+	private int maxCandidates;
+
+	private DistanceHelper.Mode distanceMode = DistanceHelper.Mode.HAVERSINE;
+
+	public ResponderSearch() {
+	}
+
+	public ResponderSearch(double radius, double maxRadius, int maxCandidates) {
+		this.radius = radius;
+		this.maxRadius = maxRadius;
+		this.maxCandidates = maxCandidates;
+	}
+
+	/**
+	 * @return the search radius in meters
+	 */
+	public double getRadius() {
+		return radius;
+	}
+
+	public void setRadius(double radius) {
+		this.radius = radius;
+	}
+
+	/**
+	 * @return the radius in meters beyond which every Responder is considered
+	 */
+	public double getMaxRadius() {
+		return maxRadius;
+	}
+
+	public void setMaxRadius(double maxRadius) {
+		this.maxRadius = maxRadius;
+	}
+
+	/**
+	 * @return the number of nearest Responders to consider, 0 for all of them
+	 */
+	public int getMaxCandidates() {
+		return maxCandidates;
+	}
+
+	public void setMaxCandidates(int maxCandidates) {
+		this.maxCandidates = maxCandidates;
+	}
+
+	public DistanceHelper.Mode getDistanceMode() {
+		return distanceMode;
+	}
+
+	public void setDistanceMode(DistanceHelper.Mode distanceMode) {
+		this.distanceMode = distanceMode;
+	}
+}
@@ -0,0 +1,313 @@
+package com.redhat.cajun.navy.rules;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The weights of the compatibility score of a MissionAssignment, as tables.
+ *
+ * The score is the sum of:
+ * <ul>
+ * <li>medical, when the incident needs medical assistance and the Responder can provide it</li>
+ * <li>the points of every spare capacity row the boat is within, where the spare
+ * capacity is the boat capacity minus the incident number of people, and isn't negative</li>
+ * <li>the points of the first distance band, in ascending order, the distance is within</li>
+ * <li>person, when the Responder is a person</li>
+ * </ul>
+ *
+ * The weights are read from a CSV table of factor, limit and points rows, by default
+ * scoring-weights.csv in the kjar. The defaults of the constructor are the weights of
+ * the original scoring rules. Insert one in the session to override the table of the
+ * kjar.
+ */
+public class ScoringWeights {
+
+	public static final String DEFAULT_TABLE = "/scoring-weights.csv";
+
+	private static ScoringWeights defaults;
+
+	private int medical = 100;
+
+	private int person = 100;
+
+	private int[] spareCapacities = { 4, 2, 0 };
+
+	private int[] spareCapacityPoints = { 25, 25, 50 };
+
+	private double[] distances = { 5000, 10000, 15000, Double.POSITIVE_INFINITY };
+
+	private int[] distancePoints = { 100, 75, 50, 25 };
+
+	public ScoringWeights() {
+	}
+
+	private ScoringWeights(ScoringWeights weights) {
+		this.medical = weights.medical;
+		this.person = weights.person;
+		this.spareCapacities = weights.spareCapacities;
+		this.spareCapacityPoints = weights.spareCapacityPoints;
+		this.distances = weights.distances;
+		this.distancePoints = weights.distancePoints;
+	}
+
+	/**
+	 * @return a copy of the weights of the DEFAULT_TABLE
+	 */
+	public static synchronized ScoringWeights defaults() {
+		if (defaults == null) {
+			InputStream table = ScoringWeights.class.getResourceAsStream(DEFAULT_TABLE);
+			if (table == null) {
+				throw new IllegalStateException("Missing " + DEFAULT_TABLE);
+			}
+			try (Reader reader = new InputStreamReader(table, StandardCharsets.UTF_8)) {
+				defaults = read(reader);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return new ScoringWeights(defaults);
+	}
+
+	/***
+	 * Read the weights from a CSV table. Each row is a factor, a limit and the points:
+	 * <ul>
+	 * <li>medical,,points</li>
+	 * <li>person,,points</li>
+	 * <li>spare capacity,largest spare capacity,points</li>
+	 * <li>distance,upper bound in meters or empty for no bound,points</li>
+	 * </ul>
+	 * Empty lines and lines starting with # are skipped.
+	 *
+	 * @param table
+	 * @return the weights, with no points for the factors missing from the table
+	 * @throws IOException
+	 * @throws IllegalArgumentException when a row is invalid
+	 */
+	public static ScoringWeights read(Reader table) throws IOException {
+		return read(table, false);
+	}
+
+	/***
+	 * Read the weights from a CSV table like read, with every factor: a medical and a
+	 * person row, at least one spare capacity row, and distance bands ending with one
+	 * with no bound. A table missing one, like a table read while it is written, would
+	 * otherwise score the missing factors with no points.
+	 *
+	 * @param table
+	 * @return the weights
+	 * @throws IOException
+	 * @throws IllegalArgumentException when a row is invalid or a factor is missing
+	 */
+	public static ScoringWeights readComplete(Reader table) throws IOException {
+		return read(table, true);
+	}
+
+	private static ScoringWeights read(Reader table, boolean complete) throws IOException {
+		ScoringWeights weights = new ScoringWeights();
+		boolean medical = false;
+		boolean person = false;
+		weights.medical = 0;
+		weights.person = 0;
+		List<int[]> spareCapacities = new ArrayList<>();
+		List<double[]> distances = new ArrayList<>();
+
+		BufferedReader reader = new BufferedReader(table);
+		int number = 0;
+		for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+			number++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] row = line.split(",", -1);
+			if (row.length != 3) {
+				throw new IllegalArgumentException("Expected factor,limit,points on line " + number + " but got " + line);
+			}
+			String factor = row[0].trim();
+			String limit = row[1].trim();
+			try {
+				int points = Integer.parseInt(row[2].trim());
+				switch (factor) {
+				case "medical":
+					weights.medical = points;
+					medical = true;
+					break;
+				case "person":
+					weights.person = points;
+					person = true;
+					break;
+				case "spare capacity":
+					spareCapacities.add(new int[] { Integer.parseInt(limit), points });
+					break;
+				case "distance":
+					distances.add(new double[] {
+							limit.isEmpty() ? Double.POSITIVE_INFINITY : Double.parseDouble(limit), points });
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown factor " + factor + " on line " + number);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Expected numbers on line " + number + " but got " + line, e);
+			}
+		}
+		if (complete) {
+			if (!medical || !person || spareCapacities.isEmpty() || distances.isEmpty()) {
+				throw new IllegalArgumentException("Expected medical, person, spare capacity and distance rows but got "
+						+ (medical ? "" : "no medical, ") + (person ? "" : "no person, ") + spareCapacities.size()
+						+ " spare capacity and " + distances.size() + " distance rows");
+			}
+			if (distances.get(distances.size() - 1)[0] != Double.POSITIVE_INFINITY) {
+				throw new IllegalArgumentException("Expected a last distance band with no bound");
+			}
+		}
+
+		int[] limits = new int[spareCapacities.size()];
+		int[] points = new int[spareCapacities.size()];
+		for (int i = 0; i < limits.length; i++) {
+			limits[i] = spareCapacities.get(i)[0];
+			points[i] = spareCapacities.get(i)[1];
+		}
+		weights.setSpareCapacities(limits, points);
+		double[] bounds = new double[distances.size()];
+		points = new int[distances.size()];
+		for (int i = 0; i < bounds.length; i++) {
+			bounds[i] = distances.get(i)[0];
+			points[i] = (int) distances.get(i)[1];
+		}
+		weights.setDistances(bounds, points);
+		return weights;
+	}
+
+	/***
+	 * Calculate the score of a MissionAssignment.
+	 *
+	 * @param medicalNeeded whether the incident needs medical assistance, can be null
+	 * @param hasMedical whether the Responder can provide it, can be null
+	 * @param person whether the Responder is a person, can be null
+	 * @param numPeople the incident number of people, can be null
+	 * @param boatCapacity the boat capacity of the Responder, can be null
+	 * @param distance the distance in meters between the Responder and the incident, can be null
+	 * @return the score
+	 */
+	public int score(Boolean medicalNeeded, Boolean hasMedical, Boolean person, Integer numPeople,
+			Integer boatCapacity, Double distance) {
+		return scoreMedical(medicalNeeded, hasMedical) + scoreSpareCapacity(numPeople, boatCapacity)
+				+ scoreDistance(distance) + scorePerson(person);
+	}
+
+	/**
+	 * @return the medical points of the score
+	 */
+	public int scoreMedical(Boolean medicalNeeded, Boolean hasMedical) {
+		return Boolean.TRUE.equals(medicalNeeded) && Boolean.TRUE.equals(hasMedical) ? medical : 0;
+	}
+
+	/**
+	 * @return the spare capacity points of the score
+	 */
+	public int scoreSpareCapacity(Integer numPeople, Integer boatCapacity) {
+		int score = 0;
+		if (numPeople != null && boatCapacity != null) {
+			int spare = boatCapacity - numPeople;
+			for (int i = 0; i < spareCapacities.length; i++) {
+				if (spare >= 0 && spare <= spareCapacities[i]) {
+					score += spareCapacityPoints[i];
+				}
+			}
+		}
+		return score;
+	}
+
+	/**
+	 * @return the distance points of the score
+	 */
+	public int scoreDistance(Double distance) {
+		if (distance != null) {
+			for (int i = 0; i < distances.length; i++) {
+				if (distance <= distances[i]) {
+					return distancePoints[i];
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the person points of the score
+	 */
+	public int scorePerson(Boolean person) {
+		return Boolean.TRUE.equals(person) ? this.person : 0;
+	}
+
+	public int getMedical() {
+		return medical;
+	}
+
+	public void setMedical(int medical) {
+		this.medical = medical;
+	}
+
+	public int getPerson() {
+		return person;
+	}
+
+	public void setPerson(int person) {
+		this.person = person;
+	}
+
+	public int[] getSpareCapacities() {
+		return spareCapacities.clone();
+	}
+
+	public int[] getSpareCapacityPoints() {
+		return spareCapacityPoints.clone();
+	}
+
+	/***
+	 * @param spareCapacities the largest spare capacity of each row
+	 * @param points the points of each row
+	 */
+	public void setSpareCapacities(int[] spareCapacities, int[] points) {
+		if (spareCapacities.length != points.length) {
+			throw new IllegalArgumentException("Expected as many points as spare capacities but got "
+					+ points.length + " for " + spareCapacities.length);
+		}
+		this.spareCapacities = spareCapacities.clone();
+		this.spareCapacityPoints = points.clone();
+	}
+
+	public double[] getDistances() {
+		return distances.clone();
+	}
+
+	public int[] getDistancePoints() {
+		return distancePoints.clone();
+	}
+
+	/***
+	 * @param distances the upper bound in meters of each band, in ascending order
+	 * @param points the points of each band
+	 */
+	public void setDistances(double[] distances, int[] points) {
+		if (distances.length != points.length) {
+			throw new IllegalArgumentException("Expected as many points as distances but got "
+					+ points.length + " for " + distances.length);
+		}
+		double[] sorted = distances.clone();
+		Arrays.sort(sorted);
+		if (!Arrays.equals(sorted, distances)) {
+			throw new IllegalArgumentException("Expected the distances in ascending order but got "
+					+ Arrays.toString(distances));
+		}
+		this.distances = distances.clone();
+		this.distancePoints = points.clone();
+	}
+}
@@ -0,0 +1,171 @@
+package com.redhat.cajun.navy.rules;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Responder;
+
+/**
+ * A ResponderIndex kept between executions, so its EligibilityCache memoises the
+ * Responders that can be eligible in a grid cell across the requests of a flood,
+ * instead of starting empty with the new ResponderIndex of every execution.
+ *
+ * Insert it in the session with the Responders: the rules then index the Responders of
+ * the execution in a view of the shared index. Before the first search of an
+ * execution, the view brings the shared index up to date with its Responders. They are
+ * compared by id with the position and boat capacity they were indexed with. The new,
+ * moved and re-boated ones are put in the index and the missing ones are removed, so
+ * the memo is only invalidated as the diff asks, like the index of a
+ * StatefulAssignmentSession. The candidates found are the Responders of the execution.
+ *
+ * Thread safe, so it can be shared by the sessions of many threads: their searches take
+ * turns on the index, and a search for an execution with another fleet than the
+ * previous one brings it up to date again.
+ */
+public class SharedResponderIndex {
+
+	private final ResponderIndex index = new ResponderIndex(Collections.<Responder>emptyList());
+
+	// the position and boat capacity the Responders of the index were indexed with, by id
+	private final Map<String, Placement> placements = new HashMap<>();
+
+	// the view the index was last brought up to date with
+	private View synced;
+
+	/**
+	 * @return the index of the Responders of one execution, searching the shared index
+	 */
+	public ResponderIndex view(Collection<Responder> responders) {
+		return new View(responders);
+	}
+
+	/**
+	 * @return the number of Responders the index was last brought up to date with
+	 */
+	public synchronized int size() {
+		return index.size();
+	}
+
+	/**
+	 * @return the memo of the index. Like the index, it isn't thread safe: change it or
+	 *         read exact counts between the searches
+	 */
+	public EligibilityCache getEligibilityCache() {
+		return index.getEligibilityCache();
+	}
+
+	private synchronized List<ResponderIndex.Candidate> findNear(View view, Incident incident, ResponderSearch search) {
+		if (synced != view) {
+			sync(view.fleet);
+			synced = view;
+		}
+		List<ResponderIndex.Candidate> found = index.findNear(incident, search);
+		List<ResponderIndex.Candidate> candidates = new ArrayList<>(found.size());
+		for (ResponderIndex.Candidate candidate : found) {
+			candidates.add(new ResponderIndex.Candidate(view.fleet.get(candidate.getResponder().getId()),
+					candidate.getDistance()));
+		}
+		return candidates;
+	}
+
+	/**
+	 * Put the Responders of the fleet that are new, moved or re-boated in the index, and
+	 * remove the ones missing from it.
+	 */
+	private void sync(Map<String, Responder> fleet) {
+		for (Responder responder : fleet.values()) {
+			Placement placement = placements.get(responder.getId());
+			if (placement == null || !placement.matches(responder)) {
+				index.put(responder);
+				placements.put(responder.getId(), new Placement(responder));
+			}
+		}
+		// every Responder of the fleet is placed, so the others are the missing ones
+		if (placements.size() > fleet.size()) {
+			for (Iterator<String> ids = placements.keySet().iterator(); ids.hasNext();) {
+				String id = ids.next();
+				if (!fleet.containsKey(id)) {
+					index.remove(id);
+					ids.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * The ResponderIndex of one execution, searching the shared index. It can't be
+	 * changed.
+	 */
+	private final class View extends ResponderIndex {
+
+		private final Collection<Responder> responders;
+
+		// the Responders of the execution by id, on the first search
+		private Map<String, Responder> fleet;
+
+		View(Collection<Responder> responders) {
+			super(responders);
+			this.responders = responders;
+		}
+
+		@Override
+		public List<Candidate> findNear(Incident incident, ResponderSearch search) {
+			if (fleet == null) {
+				Map<String, Responder> byId = new HashMap<>();
+				for (Responder responder : responders) {
+					byId.put(responder.getId(), responder);
+				}
+				fleet = byId;
+			}
+			return SharedResponderIndex.this.findNear(this, incident, search);
+		}
+
+		@Override
+		public EligibilityCache getEligibilityCache() {
+			return SharedResponderIndex.this.getEligibilityCache();
+		}
+
+		@Override
+		public void add(Responder responder) {
+			throw new UnsupportedOperationException("View of a SharedResponderIndex");
+		}
+
+		@Override
+		public boolean remove(String id) {
+			throw new UnsupportedOperationException("View of a SharedResponderIndex");
+		}
+
+		@Override
+		public void put(Responder responder) {
+			throw new UnsupportedOperationException("View of a SharedResponderIndex");
+		}
+	}
+
+	private static final class Placement {
+
+		final BigDecimal latitude;
+
+		final BigDecimal longitude;
+
+		final Integer capacity;
+
+		Placement(Responder responder) {
+			this.latitude = responder.getLatitude();
+			this.longitude = responder.getLongitude();
+			this.capacity = responder.getBoatCapacity();
+		}
+
+		boolean matches(Responder responder) {
+			return Objects.equals(latitude, responder.getLatitude()) && Objects.equals(longitude, responder.getLongitude())
+					&& Objects.equals(capacity, responder.getBoatCapacity());
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package com.redhat.cajun.navy.rules;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.redhat.cajun.navy.rules.model.Destination;
+
+/**
+ * The capacity of the shelters, the people already in them and the people on their
+ * way to them, so the missions of a surge are spread over the shelters instead of all
+ * being sent to the nearest one.
+ *
+ * A mission is routed to the Destination with the lowest cost that still has room for
+ * the incident's number of people. The cost is the distance, weighted by how full the
+ * shelter would be with the drop-off:
+ *
+ *   distance * (1 + balance * (occupancy + in flight + people) / capacity)
+ *
+ * so with the default balance of 1 a full shelter counts as twice as far as an empty
+ * one, and with a balance of 0 the nearest shelter with room is chosen. Destinations
+ * without a capacity have no limit and cost their distance. When no Destination has
+ * room, the nearest one is chosen.
+ *
+ * The people of a routed mission are in flight until the drop-off is reported with
+ * droppedOff, or cancelled. Destinations are identified by name.
+ *
+ * Insert it in the session to route with it, and keep it between executions. Thread
+ * safe, so it can be shared by the sessions of many threads.
+ */
+public class ShelterLoad {
+
+	private final Map<String, Shelter> shelters = new HashMap<>();
+
+	private final Map<String, Reservation> reservations = new HashMap<>();
+
+	private double balance = 1;
+
+	/***
+	 * @param destination the name of the Destination
+	 * @param capacity the number of people the shelter can take
+	 */
+	public synchronized void setCapacity(String destination, int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative capacity " + capacity + " for " + destination);
+		}
+		shelter(destination).capacity = capacity;
+	}
+
+	/***
+	 * @param destination the name of the Destination
+	 * @param people the number of people in the shelter, without the ones in flight
+	 */
+	public synchronized void setOccupancy(String destination, int people) {
+		if (people < 0) {
+			throw new IllegalArgumentException("Negative occupancy " + people + " for " + destination);
+		}
+		shelter(destination).occupancy = people;
+	}
+
+	public synchronized double getBalance() {
+		return balance;
+	}
+
+	/***
+	 * @param balance how much the load of a shelter weighs against its distance, 0 for
+	 * the nearest shelter with room
+	 */
+	public synchronized void setBalance(double balance) {
+		if (!(balance >= 0) || Double.isInfinite(balance)) {
+			throw new IllegalArgumentException("Invalid balance " + balance);
+		}
+		this.balance = balance;
+	}
+
+	/**
+	 * @return the number of people the shelter can still take, Integer.MAX_VALUE when it
+	 * has no capacity
+	 */
+	public synchronized int getRemaining(String destination) {
+		Shelter shelter = shelters.get(destination);
+		if (shelter == null || shelter.capacity == null) {
+			return Integer.MAX_VALUE;
+		}
+		return shelter.capacity - shelter.occupancy - shelter.inFlight;
+	}
+
+	/**
+	 * @return the number of people on their way to the shelter
+	 */
+	public synchronized int getInFlight(String destination) {
+		Shelter shelter = shelters.get(destination);
+		return shelter == null ? 0 : shelter.inFlight;
+	}
+
+	/***
+	 * Route the mission of an incident, and count its people in flight to the chosen
+	 * Destination. A mission routed again for the same incident replaces the previous
+	 * one.
+	 *
+	 * @param index the Destinations
+	 * @param incidentId
+	 * @param latitude the latitude of the incident
+	 * @param longitude the longitude of the incident
+	 * @param people the number of people of the incident, can be null
+	 * @return the Destination, or null when the index is empty or the position is missing
+	 */
+	public synchronized Destination route(DestinationIndex index, String incidentId, BigDecimal latitude,
+			BigDecimal longitude, Integer people) {
+		GeoPosition position = GeoPosition.of(latitude, longitude);
+		if (position == null) {
+			return null;
+		}
+		cancel(incidentId);
+		int number = people == null ? 0 : people;
+		Destination destination = index.route(position, this, number);
+		if (destination != null && destination.getName() != null) {
+			shelter(destination.getName()).inFlight += number;
+			reservations.put(incidentId, new Reservation(destination.getName(), number));
+		}
+		return destination;
+	}
+
+	/**
+	 * The people of the incident arrived at their shelter.
+	 *
+	 * @return true when the incident had people in flight
+	 */
+	public synchronized boolean droppedOff(String incidentId) {
+		Reservation reservation = reservations.remove(incidentId);
+		if (reservation == null) {
+			return false;
+		}
+		Shelter shelter = shelters.get(reservation.destination);
+		shelter.inFlight -= reservation.people;
+		shelter.occupancy += reservation.people;
+		return true;
+	}
+
+	/**
+	 * The mission of the incident won't reach its shelter.
+	 *
+	 * @return true when the incident had people in flight
+	 */
+	public synchronized boolean cancel(String incidentId) {
+		Reservation reservation = reservations.remove(incidentId);
+		if (reservation == null) {
+			return false;
+		}
+		shelters.get(reservation.destination).inFlight -= reservation.people;
+		return true;
+	}
+
+	/**
+	 * @return the cost of the drop-off at the Destination, Double.POSITIVE_INFINITY when
+	 * the shelter has no room for the people
+	 */
+	double cost(Destination destination, double distance, int people) {
+		Shelter shelter = destination.getName() == null ? null : shelters.get(destination.getName());
+		if (shelter == null || shelter.capacity == null) {
+			return distance;
+		}
+		int load = shelter.occupancy + shelter.inFlight + people;
+		if (load > shelter.capacity) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return shelter.capacity == 0 ? distance : distance * (1 + balance * load / shelter.capacity);
+	}
+
+	private Shelter shelter(String destination) {
+		return shelters.computeIfAbsent(destination, name -> new Shelter());
+	}
+
+	private static final class Shelter {
+
+		// null when the shelter has no limit
+		Integer capacity;
+
+		int occupancy;
+
+		int inFlight;
+	}
+
+	private static final class Reservation {
+
+		final String destination;
+
+		final int people;
+
+		Reservation(String destination, int people) {
+			this.destination = destination;
+			this.people = people;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.redhat.cajun.navy.rules.SharedResponderIndex;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.kie.api.KieBase;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+
+/**
+ * Runs independent assignments concurrently, each one in a stateless session of its
+ * own from one shared KieBase, on a virtual thread per assignment when the JVM has
+ * them (Java 21 and later), or on a fixed pool of platform threads.
+ *
+ * The virtual thread executor is looked up by reflection, so the kjar still builds
+ * and runs on Java 8. The KieBase is never modified after it is built, so the
+ * sessions only share its read-only network; the ConcurrentAssignmentBenchmark
+ * measures how well they scale with the number of cores.
+ */
+public class AssignmentExecutor implements AutoCloseable {
+
+	private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = virtualThreadPerTaskExecutor();
+
+	private final KieBase kieBase;
+
+	private final KieSessionConfiguration configuration;
+
+	private final ExecutorService executor;
+
+	private final boolean virtual;
+
+	private volatile DeferredIncidentFilter filter;
+
+	private volatile SharedResponderIndex index;
+
+	/***
+	 * @param container the container of the kjar
+	 * @param virtual true to use virtual threads when the JVM has them
+	 * @param platformThreads the number of platform threads otherwise
+	 */
+	public AssignmentExecutor(KieContainer container, boolean virtual, int platformThreads) {
+		this(container.getKieBase(KieBaseBootstrap.KBASE),
+				container.getKieSessionConfiguration(KieBaseBootstrap.KSESSION), virtual, platformThreads);
+	}
+
+	/***
+	 * @param kieBase the KieBase shared by the sessions, from KieBaseBootstrap for instance
+	 * @param configuration the configuration of the cajun-navy-ksession
+	 * @param virtual true to use virtual threads when the JVM has them
+	 * @param platformThreads the number of platform threads otherwise
+	 */
+	public AssignmentExecutor(KieBase kieBase, KieSessionConfiguration configuration, boolean virtual,
+			int platformThreads) {
+		this.kieBase = kieBase;
+		this.configuration = configuration;
+		ExecutorService virtualExecutor = virtual ? newVirtualThreadPerTaskExecutor() : null;
+		this.virtual = virtualExecutor != null;
+		this.executor = virtualExecutor != null ? virtualExecutor : newPlatformExecutor(platformThreads);
+	}
+
+	/**
+	 * @return true when the JVM has virtual threads
+	 */
+	public static boolean isVirtualThreadsAvailable() {
+		return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+	}
+
+	private static Method virtualThreadPerTaskExecutor() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+			return null;
+		}
+		try {
+			return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	private static ExecutorService newPlatformExecutor(int threads) {
+		AtomicInteger count = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "assignment-executor-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @return true when the assignments run on virtual threads
+	 */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	/**
+	 * Complete the Missions of the deferred incidents at once, without a session.
+	 */
+	public void setDeferredIncidentFilter(DeferredIncidentFilter filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * Index the Responders in the shared index, whose memo of the eligible Responders is
+	 * kept between the assignments, or in a new index for each one when null.
+	 */
+	public void setSharedResponderIndex(SharedResponderIndex index) {
+		this.index = index;
+	}
+
+	/***
+	 * Evaluate an incident against the Responders, the way the cajun-navy-ksession does.
+	 *
+	 * @param incident
+	 * @param priority the IncidentPriority of the incident, can be null
+	 * @param responders
+	 * @param destinations can be null
+	 * @return the Mission of the incident
+	 */
+	public CompletableFuture<Mission> assign(Incident incident, IncidentPriority priority, Responders responders,
+			Destinations destinations) {
+		if (DeferredIncidentFilter.defers(filter, priority, responders.getResponders().size())) {
+			return CompletableFuture.completedFuture(DeferredIncidentFilter.deferred(new Mission()));
+		}
+		return CompletableFuture.supplyAsync(() -> execute(incident, priority, responders, destinations), executor);
+	}
+
+	private Mission execute(Incident incident, IncidentPriority priority, Responders responders,
+			Destinations destinations) {
+		StatelessKieSession session = kieBase.newStatelessKieSession(configuration);
+		Mission mission = new Mission();
+		List<Command<?>> commands = new ArrayList<>();
+		commands.add(CommandFactory.newInsert(incident));
+		if (priority != null) {
+			commands.add(CommandFactory.newInsert(priority));
+		}
+		commands.add(CommandFactory.newInsert(responders));
+		SharedResponderIndex index = this.index;
+		if (index != null) {
+			commands.add(CommandFactory.newInsert(index));
+		}
+		if (destinations != null) {
+			commands.add(CommandFactory.newInsert(destinations));
+		}
+		commands.add(CommandFactory.newInsert(mission));
+		commands.add(CommandFactory.newFireAllRules());
+		session.execute(CommandFactory.newBatchExecution(commands));
+		return mission;
+	}
+
+	/**
+	 * Run the assignments already submitted, and wait for them.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				// keep waiting for the assignments in flight
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,385 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.redhat.cajun.navy.rules.SharedResponderIndex;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+
+/**
+ * Non-blocking intake of incidents in front of the cajun-navy-ksession: the incidents
+ * are queued, and a single thread evaluates them in micro-batches, one execution per
+ * batch, as a batch of Missions assigned by the AssignmentSolver. A Responder is
+ * assigned to at most one incident of a batch.
+ *
+ * A batch is closed when it has maxBatch incidents, when the window has elapsed since
+ * its first incident, or before a second incident with the same id, which starts the
+ * next batch. The window adapts to the load: it is halved after a batch of a single
+ * incident, where waiting only added latency, and doubled up to maxWindow after a
+ * larger one. The incidents queued while a batch is evaluated are batched without
+ * waiting.
+ *
+ * The queue is bounded: an incident submitted to a full queue is rejected at once, its
+ * future failing with a RejectedExecutionException, so the consumer feeding the intake
+ * can slow down. The futures are completed on the intake thread, so the work of their
+ * dependent stages should be given to an executor.
+ *
+ * The Responders and the Destinations are read from their suppliers for every batch.
+ * The incidents the DeferredIncidentFilter defers are completed when their batch is
+ * assembled, without being evaluated, and a batch of deferred incidents only is never
+ * executed.
+ * Expose the metrics with registerMBean, or read them directly.
+ */
+public class AssignmentIntake implements AssignmentIntakeMXBean, AutoCloseable {
+
+	public static final String OBJECT_NAME = "com.redhat.cajun.navy.rules:type=AssignmentIntake";
+
+	private final StatelessKieSession session;
+
+	private final Supplier<Responders> responders;
+
+	private final Supplier<Destinations> destinations;
+
+	private final BlockingQueue<Request> queue;
+
+	private final int maxBatch;
+
+	private final long maxWindow;
+
+	private volatile long window;
+
+	private volatile DeferredIncidentFilter filter;
+
+	private volatile SharedResponderIndex index;
+
+	// the incident that closed the previous batch, read and written by the intake thread
+	private Request carried;
+
+	private final LongAdder submitted = new LongAdder();
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final LatencyHistogram batchSizes = new LatencyHistogram();
+
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	private Thread worker;
+
+	private volatile boolean closed;
+
+	/***
+	 * @param container the container of the kjar
+	 * @param responders the Responders of the next batch
+	 * @param destinations the Destinations of the next batch, can be null or supply null
+	 * @param capacity the largest number of incidents queued
+	 * @param maxBatch the largest number of incidents of a batch
+	 * @param maxWindow the longest time in milliseconds to wait for the incidents of a batch
+	 */
+	public AssignmentIntake(KieContainer container, Supplier<Responders> responders,
+			Supplier<Destinations> destinations, int capacity, int maxBatch, long maxWindow) {
+		if (capacity < 1 || maxBatch < 1 || maxWindow < 0) {
+			throw new IllegalArgumentException("Invalid capacity " + capacity + ", batch " + maxBatch + " or window "
+					+ maxWindow);
+		}
+		this.session = container.newStatelessKieSession(KieBaseBootstrap.KSESSION);
+		this.responders = responders;
+		this.destinations = destinations;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.maxBatch = maxBatch;
+		this.maxWindow = TimeUnit.MILLISECONDS.toNanos(maxWindow);
+		this.window = this.maxWindow;
+	}
+
+	/**
+	 * Start evaluating the incidents on the intake thread. The incidents submitted
+	 * before are queued.
+	 */
+	public synchronized void start() {
+		if (closed || worker != null) {
+			throw new IllegalStateException(closed ? "Closed" : "Already started");
+		}
+		worker = new Thread(this::run, "assignment-intake");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Complete the Missions of the deferred incidents without evaluating them.
+	 */
+	public void setDeferredIncidentFilter(DeferredIncidentFilter filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * Index the Responders in the shared index, whose memo of the eligible Responders is
+	 * kept between the batches, or in a new index for each one when null.
+	 */
+	public void setSharedResponderIndex(SharedResponderIndex index) {
+		this.index = index;
+	}
+
+	/***
+	 * Queue an incident, without waiting.
+	 *
+	 * @param incident
+	 * @param priority the IncidentPriority of the incident, can be null
+	 * @return the Mission of the incident once its batch is evaluated, failed with a
+	 *         RejectedExecutionException when the queue is full or the intake is closed
+	 */
+	public CompletableFuture<Mission> submit(Incident incident, IncidentPriority priority) {
+		Request request = new Request(incident, priority);
+		if (closed || !queue.offer(request)) {
+			reject(request, closed ? "Closed" : "The intake queue is full");
+		} else if (closed && queue.remove(request)) {
+			// closed after the intake thread stopped, and before it could see the request
+			reject(request, "Closed");
+		} else {
+			submitted.increment();
+		}
+		return request.future;
+	}
+
+	private void reject(Request request, String reason) {
+		rejected.increment();
+		request.future.completeExceptionally(new RejectedExecutionException(reason));
+	}
+
+	private void run() {
+		List<Request> batch = new ArrayList<>(maxBatch);
+		while (true) {
+			Request first = carried != null ? carried : queue.poll();
+			carried = null;
+			if (first == null) {
+				if (closed) {
+					return;
+				}
+				try {
+					first = queue.take();
+				} catch (InterruptedException e) {
+					continue;
+				}
+			}
+			collect(first, batch);
+			evaluate(batch);
+			batch.clear();
+		}
+	}
+
+	private void collect(Request first, List<Request> batch) {
+		Set<String> incidents = new HashSet<>();
+		batch.add(first);
+		incidents.add(first.incident.getId());
+		long deadline = System.nanoTime() + window;
+		while (batch.size() < maxBatch) {
+			Request next = queue.poll();
+			if (next == null) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0 || closed) {
+					break;
+				}
+				try {
+					next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+				} catch (InterruptedException e) {
+					// closing, evaluate what was collected
+					break;
+				}
+				if (next == null) {
+					break;
+				}
+			}
+			if (!incidents.add(next.incident.getId())) {
+				carried = next;
+				break;
+			}
+			batch.add(next);
+		}
+		window = batch.size() > 1 ? Math.min(maxWindow, Math.max(2 * window, maxWindow / 16)) : window / 2;
+	}
+
+	private void evaluate(List<Request> batch) {
+		List<Request> evaluated = new ArrayList<>(batch.size());
+		List<Mission> missions = new ArrayList<>(batch.size());
+		try {
+			Responders fleet = responders.get();
+			DeferredIncidentFilter filter = this.filter;
+			List<Command<?>> commands = new ArrayList<>(3 * batch.size() + 3);
+			for (Request request : batch) {
+				Mission mission = new Mission();
+				mission.setIncidentId(request.incident.getId());
+				if (DeferredIncidentFilter.defers(filter, request.priority, fleet.getResponders().size())) {
+					complete(request, DeferredIncidentFilter.deferred(mission));
+					continue;
+				}
+				evaluated.add(request);
+				missions.add(mission);
+				commands.add(CommandFactory.newInsert(request.incident));
+				if (request.priority != null) {
+					commands.add(CommandFactory.newInsert(request.priority));
+				}
+			}
+			if (evaluated.isEmpty()) {
+				return;
+			}
+			commands.add(CommandFactory.newInsert(fleet));
+			SharedResponderIndex index = this.index;
+			if (index != null) {
+				commands.add(CommandFactory.newInsert(index));
+			}
+			Destinations supplied = destinations == null ? null : destinations.get();
+			if (supplied != null) {
+				commands.add(CommandFactory.newInsert(supplied));
+			}
+			for (Mission mission : missions) {
+				commands.add(CommandFactory.newInsert(mission));
+			}
+			commands.add(CommandFactory.newFireAllRules());
+			session.execute(CommandFactory.newBatchExecution(commands));
+		} catch (RuntimeException e) {
+			for (Request request : batch) {
+				// the deferred incidents are already completed
+				request.future.completeExceptionally(e);
+			}
+			return;
+		} finally {
+			batchSizes.record(batch.size());
+		}
+		for (int i = 0; i < evaluated.size(); i++) {
+			complete(evaluated.get(i), missions.get(i));
+		}
+	}
+
+	private void complete(Request request, Mission mission) {
+		latencies.record(System.nanoTime() - request.submitted);
+		request.future.complete(mission);
+	}
+
+	/***
+	 * Register the metrics with the platform MBeanServer.
+	 *
+	 * @param name the name of the intake
+	 * @return the name of the MBean
+	 * @throws JMException
+	 */
+	public ObjectName registerMBean(String name) throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = new ObjectName(OBJECT_NAME + ",name=" + ObjectName.quote(name));
+		server.registerMBean(this, objectName);
+		return objectName;
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	@Override
+	public int getQueueCapacity() {
+		return queue.size() + queue.remainingCapacity();
+	}
+
+	@Override
+	public long getSubmitted() {
+		return submitted.sum();
+	}
+
+	@Override
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	@Override
+	public long getBatches() {
+		return batchSizes.getCount();
+	}
+
+	@Override
+	public double getBatchSizeMean() {
+		return batchSizes.getMean();
+	}
+
+	@Override
+	public long getBatchSizeP99() {
+		return batchSizes.getValueAtPercentile(99);
+	}
+
+	@Override
+	public long getBatchSizeMax() {
+		return batchSizes.getMax();
+	}
+
+	@Override
+	public double getWindowMicros() {
+		return window / 1e3;
+	}
+
+	@Override
+	public double getLatencyMeanMicros() {
+		return latencies.getMean() / 1e3;
+	}
+
+	@Override
+	public double getLatencyP99Micros() {
+		return latencies.getValueAtPercentile(99) / 1e3;
+	}
+
+	/**
+	 * Evaluate the incidents already queued, and reject the incidents submitted
+	 * afterwards.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (worker != null) {
+			worker.interrupt();
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		for (Request request = queue.poll(); request != null; request = queue.poll()) {
+			reject(request, "Closed");
+		}
+	}
+
+	private static final class Request {
+
+		final Incident incident;
+
+		final IncidentPriority priority;
+
+		final long submitted = System.nanoTime();
+
+		final CompletableFuture<Mission> future = new CompletableFuture<>();
+
+		Request(Incident incident, IncidentPriority priority) {
+			this.incident = incident;
+			this.priority = priority;
+		}
+	}
+}
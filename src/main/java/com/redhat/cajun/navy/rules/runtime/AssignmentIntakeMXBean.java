@@ -0,0 +1,29 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+/**
+ * The JMX view of AssignmentIntake. The times are in microseconds.
+ */
+public interface AssignmentIntakeMXBean {
+
+	int getQueueDepth();
+
+	int getQueueCapacity();
+
+	long getSubmitted();
+
+	long getRejected();
+
+	long getBatches();
+
+	double getBatchSizeMean();
+
+	long getBatchSizeP99();
+
+	long getBatchSizeMax();
+
+	double getWindowMicros();
+
+	double getLatencyMeanMicros();
+
+	double getLatencyP99Micros();
+}
@@ -0,0 +1,287 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.redhat.cajun.navy.rules.model.Destination;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+
+/**
+ * Deterministic replay of a recorded ReplayWorkload through the cajun-navy-ksession,
+ * on a single thread, in the order of the workload, to load test a change of the rules
+ * against recorded traffic without the rest of the Emergency Response stack:
+ *
+ *   java -cp ... com.redhat.cajun.navy.rules.runtime.AssignmentReplay workload.csv [speed]
+ *
+ * Each incident is executed the way the incident service does, with the Responders and
+ * the Destinations of the workload at its time. The speed is how many times faster than
+ * recorded the events are replayed, 0 for as fast as possible. At a given speed, the
+ * latency of an incident is measured from the time it was due, so the time it waited
+ * behind a slow execution counts; as fast as possible, from the start of its
+ * execution.
+ *
+ * The report has the throughput, the latency percentiles and the incidents whose
+ * Mission differs from the recorded one.
+ */
+public class AssignmentReplay {
+
+	private final StatelessKieSession session;
+
+	private final double speed;
+
+	/***
+	 * @param container the container of the kjar
+	 * @param speed how many times faster than recorded, 0 for as fast as possible
+	 */
+	public AssignmentReplay(KieContainer container, double speed) {
+		if (!(speed >= 0) || Double.isInfinite(speed)) {
+			throw new IllegalArgumentException("Invalid speed " + speed);
+		}
+		this.session = container.newStatelessKieSession(KieBaseBootstrap.KSESSION);
+		this.speed = speed;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 2) {
+			System.err.println("Usage: AssignmentReplay <workload csv> [speed, 0 for as fast as possible]");
+			System.exit(2);
+		}
+		ReplayWorkload workload;
+		try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+			workload = ReplayWorkload.read(reader);
+		}
+		double speed = args.length == 2 ? Double.parseDouble(args[1]) : 0;
+		Report report = new AssignmentReplay(KieServices.Factory.get().newKieClasspathContainer(), speed).replay(workload);
+		System.out.println(report);
+		for (Difference difference : report.getDifferences()) {
+			System.out.println("  " + difference);
+		}
+	}
+
+	/***
+	 * @param workload
+	 * @return the report of the replay
+	 */
+	public Report replay(ReplayWorkload workload) {
+		Map<String, Responder> fleet = new LinkedHashMap<>();
+		List<Destination> shelters = new ArrayList<>();
+		Responders responders = null;
+		Destinations destinations = null;
+		LatencyHistogram latencies = new LatencyHistogram();
+		List<Difference> differences = new ArrayList<>();
+		int incidents = 0;
+		int compared = 0;
+
+		long start = System.nanoTime();
+		long origin = workload.getEvents().isEmpty() ? 0 : workload.getEvents().get(0).getTime();
+		for (ReplayWorkload.Event event : workload.getEvents()) {
+			if (event instanceof ReplayWorkload.ResponderEvent) {
+				Responder responder = ((ReplayWorkload.ResponderEvent) event).getResponder();
+				fleet.put(responder.getId(), responder);
+				responders = null;
+			} else if (event instanceof ReplayWorkload.RemoveResponderEvent) {
+				fleet.remove(((ReplayWorkload.RemoveResponderEvent) event).getId());
+				responders = null;
+			} else if (event instanceof ReplayWorkload.DestinationEvent) {
+				shelters.add(((ReplayWorkload.DestinationEvent) event).getDestination());
+				destinations = null;
+			} else if (event instanceof ReplayWorkload.IncidentEvent) {
+				ReplayWorkload.IncidentEvent incident = (ReplayWorkload.IncidentEvent) event;
+				// the facts are not modified by the rules, so they are shared until the next change
+				if (responders == null) {
+					responders = new Responders();
+					for (Responder responder : fleet.values()) {
+						responders.add(responder);
+					}
+				}
+				if (destinations == null && !shelters.isEmpty()) {
+					destinations = new Destinations();
+					for (Destination destination : shelters) {
+						destinations.add(destination);
+					}
+				}
+
+				long due = System.nanoTime();
+				if (speed > 0) {
+					due = start + (long) (TimeUnit.MILLISECONDS.toNanos(event.getTime() - origin) / speed);
+					for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+						LockSupport.parkNanos(wait);
+					}
+				}
+				Mission mission = execute(incident, responders, destinations);
+				latencies.record(System.nanoTime() - due);
+				incidents++;
+
+				if (incident.getStatus() != null) {
+					compared++;
+					String status = mission.getStatus() == null ? null : mission.getStatus().name();
+					if (!incident.getStatus().equals(status)
+							|| !Objects.equals(incident.getResponderId(), mission.getResponderId())) {
+						differences.add(new Difference(incident.getIncident().getId(), incident.getStatus(),
+								incident.getResponderId(), status, mission.getResponderId()));
+					}
+				}
+			}
+		}
+		return new Report(incidents, compared, System.nanoTime() - start, latencies, differences);
+	}
+
+	private Mission execute(ReplayWorkload.IncidentEvent incident, Responders responders, Destinations destinations) {
+		Mission mission = new Mission();
+		List<Command<?>> commands = new ArrayList<>();
+		commands.add(CommandFactory.newInsert(incident.getIncident()));
+		if (incident.getPriority() != null) {
+			commands.add(CommandFactory.newInsert(incident.getPriority()));
+		}
+		commands.add(CommandFactory.newInsert(responders));
+		if (destinations != null) {
+			commands.add(CommandFactory.newInsert(destinations));
+		}
+		commands.add(CommandFactory.newInsert(mission));
+		commands.add(CommandFactory.newFireAllRules());
+		session.execute(CommandFactory.newBatchExecution(commands));
+		return mission;
+	}
+
+	/**
+	 * An incident whose Mission differs from the recorded one.
+	 */
+	public static final class Difference {
+
+		private final String incidentId;
+
+		private final String expectedStatus;
+
+		private final String expectedResponderId;
+
+		private final String status;
+
+		private final String responderId;
+
+		Difference(String incidentId, String expectedStatus, String expectedResponderId, String status,
+				String responderId) {
+			this.incidentId = incidentId;
+			this.expectedStatus = expectedStatus;
+			this.expectedResponderId = expectedResponderId;
+			this.status = status;
+			this.responderId = responderId;
+		}
+
+		public String getIncidentId() {
+			return incidentId;
+		}
+
+		public String getExpectedStatus() {
+			return expectedStatus;
+		}
+
+		public String getExpectedResponderId() {
+			return expectedResponderId;
+		}
+
+		public String getStatus() {
+			return status;
+		}
+
+		public String getResponderId() {
+			return responderId;
+		}
+
+		@Override
+		public String toString() {
+			return "incident " + incidentId + ": recorded " + expectedStatus + " " + expectedResponderId
+					+ ", replayed " + status + " " + responderId;
+		}
+	}
+
+	public static final class Report {
+
+		private final int incidents;
+
+		private final int compared;
+
+		private final long time;
+
+		private final LatencyHistogram latencies;
+
+		private final List<Difference> differences;
+
+		Report(int incidents, int compared, long time, LatencyHistogram latencies, List<Difference> differences) {
+			this.incidents = incidents;
+			this.compared = compared;
+			this.time = time;
+			this.latencies = latencies;
+			this.differences = Collections.unmodifiableList(differences);
+		}
+
+		/**
+		 * @return the number of incidents replayed
+		 */
+		public int getIncidents() {
+			return incidents;
+		}
+
+		/**
+		 * @return the number of incidents with a recorded Mission
+		 */
+		public int getCompared() {
+			return compared;
+		}
+
+		/**
+		 * @return the time of the replay in nanoseconds
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * @return the incidents per second
+		 */
+		public double getThroughput() {
+			return time == 0 ? 0 : incidents * 1e9 / time;
+		}
+
+		/**
+		 * @return the latencies of the incidents in nanoseconds
+		 */
+		public LatencyHistogram getLatencies() {
+			return latencies;
+		}
+
+		public List<Difference> getDifferences() {
+			return differences;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d incidents in %.1f s, %.1f incidents/s, latency p50 %.3f ms, p90 %.3f ms,"
+					+ " p99 %.3f ms, p99.9 %.3f ms, max %.3f ms, %d of %d recorded missions differ",
+					incidents, time / 1e9, getThroughput(), millis(50), millis(90), millis(99), millis(99.9),
+					latencies.getMax() / 1e6, differences.size(), compared);
+		}
+
+		private double millis(double percentile) {
+			return latencies.getValueAtPercentile(percentile) / 1e6;
+		}
+	}
+}
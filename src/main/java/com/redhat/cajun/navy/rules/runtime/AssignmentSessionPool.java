@@ -0,0 +1,263 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.redhat.cajun.navy.rules.SharedResponderIndex;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.drools.core.impl.StatefulKnowledgeSessionImpl;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+
+/**
+ * Bounded pool of cajun-navy-stateful-ksession sessions, reset when they are returned,
+ * so a request reuses the agenda, working memory and node memories of a previous one
+ * instead of allocating them again.
+ *
+ * Sessions are created at once while fewer than size of them exist. Once size sessions
+ * are borrowed, a borrower waits up to maxWait for one to be returned, and then gets a
+ * new session instead. The sessions returned to a full pool are disposed. The pool
+ * counts the sessions borrowed, reused and created, and the time spent waiting for
+ * them.
+ *
+ * Thread safe. A borrowed session is only used by the thread that borrowed it.
+ */
+public class AssignmentSessionPool implements AutoCloseable {
+
+	private final KieContainer container;
+
+	private final BlockingQueue<KieSession> idle;
+
+	private final int size;
+
+	private final long maxWait;
+
+	// the sessions of the pool that aren't disposed, idle or borrowed
+	private final AtomicInteger live = new AtomicInteger();
+
+	private final LongAdder borrowed = new LongAdder();
+
+	private final LongAdder reused = new LongAdder();
+
+	private final LongAdder created = new LongAdder();
+
+	private final LongAdder waitTime = new LongAdder();
+
+	private final AtomicLong maxWaitTime = new AtomicLong();
+
+	private volatile DeferredIncidentFilter filter;
+
+	private volatile SharedResponderIndex index;
+
+	private volatile boolean closed;
+
+	/***
+	 * @param container
+	 * @param size the number of sessions created without waiting, and the largest number
+	 *        of idle sessions kept
+	 * @param maxWait the time in milliseconds to wait for a session once size sessions are
+	 *        borrowed, before creating one
+	 */
+	public AssignmentSessionPool(KieContainer container, int size, long maxWait) {
+		this.container = container;
+		this.idle = new ArrayBlockingQueue<>(size);
+		this.size = size;
+		this.maxWait = TimeUnit.MILLISECONDS.toNanos(maxWait);
+	}
+
+	/**
+	 * @return an idle session, a new one while fewer than size sessions exist, or a new
+	 *         one when none was returned within maxWait
+	 */
+	public KieSession borrow() {
+		if (closed) {
+			throw new IllegalStateException("Closed");
+		}
+		long start = System.nanoTime();
+		KieSession session = idle.poll();
+		boolean reserved = session == null && reserve();
+		if (session == null && !reserved && maxWait > 0) {
+			try {
+				session = idle.poll(maxWait, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		long waited = System.nanoTime() - start;
+		waitTime.add(waited);
+		maxWaitTime.accumulateAndGet(waited, Math::max);
+		borrowed.increment();
+		if (session == null) {
+			created.increment();
+			if (!reserved) {
+				live.incrementAndGet();
+			}
+			return container.newKieSession(StatefulAssignmentSession.KSESSION);
+		}
+		reused.increment();
+		return session;
+	}
+
+	/**
+	 * Reset the session and return it to the pool, or dispose it when the pool is full.
+	 */
+	public void release(KieSession session) {
+		try {
+			reset(session);
+		} catch (RuntimeException e) {
+			dispose(session);
+			throw e;
+		}
+		if (closed || !idle.offer(session)) {
+			dispose(session);
+		} else if (closed && idle.remove(session)) {
+			// closed after the check above and before close drained the offered session
+			dispose(session);
+		}
+	}
+
+	/**
+	 * Count a new session when fewer than size sessions exist.
+	 *
+	 * @return true when the session can be created without waiting for one to be returned
+	 */
+	private boolean reserve() {
+		for (int count = live.get(); count < size; count = live.get()) {
+			if (live.compareAndSet(count, count + 1)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void dispose(KieSession session) {
+		live.decrementAndGet();
+		session.dispose();
+	}
+
+	private static void reset(KieSession session) {
+		if (session instanceof StatefulKnowledgeSessionImpl) {
+			((StatefulKnowledgeSessionImpl) session).reset();
+		} else {
+			for (FactHandle handle : new ArrayList<>(session.<FactHandle>getFactHandles())) {
+				session.delete(handle);
+			}
+		}
+	}
+
+	/**
+	 * Return the Missions of the deferred incidents without borrowing a session.
+	 */
+	public void setDeferredIncidentFilter(DeferredIncidentFilter filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * Index the Responders in the shared index, whose memo of the eligible Responders is
+	 * kept between the requests, or in a new index for each one when null.
+	 */
+	public void setSharedResponderIndex(SharedResponderIndex index) {
+		this.index = index;
+	}
+
+	/***
+	 * Evaluate an incident against the Responders with a pooled session, the way the
+	 * cajun-navy-ksession does.
+	 *
+	 * @param incident
+	 * @param priority the IncidentPriority of the incident, can be null
+	 * @param responders
+	 * @param destinations can be null
+	 * @param mission the requested Mission, updated by the rules
+	 * @return the Mission
+	 */
+	public Mission assign(Incident incident, IncidentPriority priority, Responders responders, Destinations destinations,
+			Mission mission) {
+		if (DeferredIncidentFilter.defers(filter, priority, responders.getResponders().size())) {
+			return DeferredIncidentFilter.deferred(mission);
+		}
+		KieSession session = borrow();
+		try {
+			session.insert(incident);
+			if (priority != null) {
+				session.insert(priority);
+			}
+			session.insert(responders);
+			SharedResponderIndex index = this.index;
+			if (index != null) {
+				session.insert(index);
+			}
+			if (destinations != null) {
+				session.insert(destinations);
+			}
+			session.insert(mission);
+			session.fireAllRules();
+		} finally {
+			release(session);
+		}
+		return mission;
+	}
+
+	/**
+	 * @return the number of sessions borrowed
+	 */
+	public long getBorrowed() {
+		return borrowed.sum();
+	}
+
+	/**
+	 * @return the number of borrowed sessions that were idle sessions of the pool
+	 */
+	public long getReused() {
+		return reused.sum();
+	}
+
+	/**
+	 * @return the number of borrowed sessions that had to be created
+	 */
+	public long getCreated() {
+		return created.sum();
+	}
+
+	/**
+	 * @return the total time in nanoseconds spent waiting for a session
+	 */
+	public long getWaitTime() {
+		return waitTime.sum();
+	}
+
+	/**
+	 * @return the longest time in nanoseconds spent waiting for a session
+	 */
+	public long getMaxWaitTime() {
+		return maxWaitTime.get();
+	}
+
+	/**
+	 * @return the number of idle sessions in the pool
+	 */
+	public int getIdle() {
+		return idle.size();
+	}
+
+	/**
+	 * Dispose the idle sessions. The sessions returned afterwards are disposed.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for (KieSession session = idle.poll(); session != null; session = idle.poll()) {
+			dispose(session);
+		}
+	}
+}
@@ -0,0 +1,355 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.redhat.cajun.navy.rules.AssignmentBatch;
+import com.redhat.cajun.navy.rules.ScoringWeights;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.MissionAssignment;
+import org.kie.api.event.KieRuntimeEventManager;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.DefaultRuleRuntimeEventListener;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.runtime.KieRuntime;
+import org.kie.api.runtime.rule.Match;
+
+/**
+ * Opt-in trace of the assignment decisions, appended to a memory-mapped binary log,
+ * so a dispatcher can be told why a Responder was chosen without running the session
+ * again. Read it back with AssignmentTraceReader.
+ *
+ * Attached to a session, it keeps the points of each factor of the score of every
+ * MissionAssignment when "Score the Mission Assignment" fires, and writes a record when
+ * the missions are assigned, by getAssignedMission or by the solver of a batch: the
+ * choice for each Mission and every candidate MissionAssignment with its final score.
+ *
+ * Each attached session gets listeners of its own, keeping the scored candidates of
+ * its execution in progress without any lock, so a session is traced by one thread at a
+ * time, like a KieSession is used: attach a StatelessKieSession executed by several
+ * threads once per thread. The candidates are kept until the missions are assigned, so
+ * an execution that never assigns one, because no Mission is requested or the rules
+ * throw, doesn't leave them to the next one: they are dropped when the next execution
+ * of a stateless session starts, when the MissionAssignments are deleted from a
+ * long-lived one, and on detach. The records are encoded with no reflection or text
+ * formatting into one reused buffer and copied into the mapped file under the lock of
+ * the log. The log is only forced to disk on close.
+ *
+ * The file starts with MAGIC and VERSION. Each record is its length as an int, then a
+ * long timestamp, a short number of missions with the incident id, responder id and
+ * status of each, then an int number of candidates with the incident id, responder id,
+ * double distance, int score and the int medical, spare capacity, distance and person
+ * points of each. The strings are in the format of
+ * DataOutput.writeUTF, with an empty string for null. The length is written last, so a
+ * record cut short by a crash is never read; a length of 0 ends the log.
+ */
+public class AssignmentTraceLog implements AutoCloseable {
+
+	public static final int MAGIC = 0x434e5452;
+
+	public static final int VERSION = 1;
+
+	static final int HEADER = 8;
+
+	static final String SCORE_RULE = "Score the Mission Assignment";
+
+	static final String ASSIGN_RULE = "Assign the top mission";
+
+	static final String ASSIGN_BATCH_RULE = "Assign the missions of the batch";
+
+	static final int DEFAULT_SEGMENT = 16 * 1024 * 1024;
+
+	private final FileChannel channel;
+
+	private final int segment;
+
+	private MappedByteBuffer mapped;
+
+	private long base;
+
+	private long position;
+
+	private boolean closed;
+
+	// the listeners of the attached sessions
+	private final ConcurrentMap<KieRuntimeEventManager, Listener> listeners = new ConcurrentHashMap<>();
+
+	private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+	public AssignmentTraceLog(Path file) throws IOException {
+		this(file, DEFAULT_SEGMENT);
+	}
+
+	/***
+	 * Open the log, and append to it when it exists.
+	 *
+	 * @param file
+	 * @param segment the size in bytes of the regions of the file mapped at once
+	 * @throws IOException when the file can't be opened or isn't a trace log
+	 */
+	public AssignmentTraceLog(Path file, int segment) throws IOException {
+		this.segment = segment;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			if (channel.size() == 0) {
+				map(0, HEADER);
+				mapped.putInt(0, MAGIC);
+				mapped.putInt(4, VERSION);
+				position = HEADER;
+			} else {
+				position = AssignmentTraceReader.end(channel, segment);
+				map(position, 0);
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Trace the assignments of the session, stateful or stateless.
+	 */
+	public void attach(KieRuntimeEventManager session) {
+		Listener listener = new Listener();
+		if (listeners.putIfAbsent(session, listener) == null) {
+			session.addEventListener(listener);
+			session.addEventListener(listener.deletions);
+		}
+	}
+
+	/**
+	 * Stop tracing the session, and drop the candidates of its execution in progress.
+	 */
+	public void detach(KieRuntimeEventManager session) {
+		Listener listener = listeners.remove(session);
+		if (listener != null) {
+			session.removeEventListener(listener);
+			session.removeEventListener(listener.deletions);
+		}
+	}
+
+	/**
+	 * @return the size in bytes of the records and the header written
+	 */
+	public synchronized long size() {
+		return position;
+	}
+
+	private void map(long from, int length) throws IOException {
+		base = from;
+		mapped = channel.map(FileChannel.MapMode.READ_WRITE, from, Math.max(segment, length));
+	}
+
+	private synchronized void append(List<Mission> missions, Candidates candidates) throws IOException {
+		if (closed) {
+			return;
+		}
+		ByteBuffer record = encode(missions, candidates);
+		int length = record.remaining();
+		if (position + 4 + length > base + mapped.capacity()) {
+			map(position, 4 + length);
+		}
+		int offset = (int) (position - base);
+		ByteBuffer target = mapped.duplicate();
+		target.position(offset + 4);
+		target.put(record);
+		mapped.putInt(offset, length);
+		position += 4 + length;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		mapped.force();
+		channel.close();
+	}
+
+	/**
+	 * The scored candidates of an execution, with the points of their factors.
+	 */
+	private static final class Candidates {
+
+		final Map<MissionAssignment, Integer> indexes = new IdentityHashMap<>();
+
+		final List<MissionAssignment> assignments = new ArrayList<>();
+
+		// medical, spare capacity, distance and person points of each assignment
+		int[] points = new int[16];
+
+		void scored(MissionAssignment assignment, int medical, int spareCapacity, int distance, int person) {
+			Integer index = indexes.get(assignment);
+			if (index == null) {
+				index = assignments.size();
+				indexes.put(assignment, index);
+				assignments.add(assignment);
+				if (points.length < 4 * assignments.size()) {
+					points = Arrays.copyOf(points, points.length * 2);
+				}
+			}
+			int offset = 4 * index;
+			points[offset] = medical;
+			points[offset + 1] = spareCapacity;
+			points[offset + 2] = distance;
+			points[offset + 3] = person;
+		}
+	}
+
+	private ByteBuffer encode(List<Mission> missions, Candidates candidates) {
+		List<MissionAssignment> assignments = candidates == null ? Collections.<MissionAssignment>emptyList()
+				: candidates.assignments;
+		while (true) {
+			try {
+				buffer.clear();
+				buffer.putLong(System.currentTimeMillis());
+				buffer.putShort((short) missions.size());
+				for (Mission mission : missions) {
+					putUTF(mission.getIncidentId());
+					putUTF(mission.getResponderId());
+					putUTF(mission.getStatus() == null ? null : mission.getStatus().name());
+				}
+				buffer.putInt(assignments.size());
+				for (int index = 0; index < assignments.size(); index++) {
+					MissionAssignment assignment = assignments.get(index);
+					putUTF(assignment.getIncident().getId());
+					putUTF(assignment.getResponder().getId());
+					Object distance = assignment.getDistance();
+					buffer.putDouble(distance instanceof Number ? ((Number) distance).doubleValue() : Double.NaN);
+					buffer.putInt(assignment.getCompatibilityScore());
+					for (int i = 0; i < 4; i++) {
+						buffer.putInt(candidates.points[4 * index + i]);
+					}
+				}
+				buffer.flip();
+				return buffer;
+			} catch (BufferOverflowException e) {
+				buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+			}
+		}
+	}
+
+	/**
+	 * Put the string in the format of DataOutput.writeUTF, without encoding it to a
+	 * byte array first.
+	 */
+	private void putUTF(String value) {
+		String string = value == null ? "" : value;
+		int length = 0;
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			length += c >= 0x0001 && c <= 0x007f ? 1 : c <= 0x07ff ? 2 : 3;
+		}
+		if (length > 0xffff) {
+			throw new IllegalArgumentException("String too long: " + length + " bytes");
+		}
+		buffer.putShort((short) length);
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c >= 0x0001 && c <= 0x007f) {
+				buffer.put((byte) c);
+			} else if (c <= 0x07ff) {
+				buffer.put((byte) (0xc0 | (c >> 6)));
+				buffer.put((byte) (0x80 | (c & 0x3f)));
+			} else {
+				buffer.put((byte) (0xe0 | (c >> 12)));
+				buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+				buffer.put((byte) (0x80 | (c & 0x3f)));
+			}
+		}
+	}
+
+	/**
+	 * The listeners of one attached session, with the scored candidates of its execution
+	 * in progress.
+	 */
+	private final class Listener extends DefaultAgendaEventListener {
+
+		final Deletions deletions = new Deletions();
+
+		// the runtime of the execution in progress, a new one for each stateless execution
+		private KieRuntime runtime;
+
+		private Candidates candidates;
+
+		@Override
+		public void afterMatchFired(AfterMatchFiredEvent event) {
+			Match match = event.getMatch();
+			switch (match.getRule().getName()) {
+			case SCORE_RULE:
+				scored(event, match);
+				break;
+			case ASSIGN_RULE:
+				assigned(event.getKieRuntime(), Collections.singletonList((Mission) match.getDeclarationValue("$mission")));
+				break;
+			case ASSIGN_BATCH_RULE:
+				assigned(event.getKieRuntime(), ((AssignmentBatch) match.getDeclarationValue("$batch")).getMissions());
+				break;
+			default:
+				break;
+			}
+		}
+
+		private void scored(AfterMatchFiredEvent event, Match match) {
+			ScoringWeights weights = (ScoringWeights) match.getDeclarationValue("$weights");
+			Object distance = match.getDeclarationValue("$distance");
+			if (candidates == null || runtime != event.getKieRuntime()) {
+				runtime = event.getKieRuntime();
+				candidates = new Candidates();
+			}
+			candidates.scored((MissionAssignment) match.getDeclarationValue("$assignment"),
+					weights.scoreMedical((Boolean) match.getDeclarationValue("$medicalNeeded"),
+							(Boolean) match.getDeclarationValue("$hasMedical")),
+					weights.scoreSpareCapacity((Integer) match.getDeclarationValue("$numPeople"),
+							(Integer) match.getDeclarationValue("$boatCapacity")),
+					weights.scoreDistance(distance == null ? null : ((Number) distance).doubleValue()),
+					weights.scorePerson((Boolean) match.getDeclarationValue("$person")));
+		}
+
+		private void assigned(KieRuntime runtime, List<Mission> missions) {
+			Candidates assigned = runtime == this.runtime ? candidates : null;
+			drop();
+			try {
+				append(missions, assigned);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		void drop() {
+			runtime = null;
+			candidates = null;
+		}
+
+		/**
+		 * Drops the candidates when the MissionAssignments are deleted, after an execution
+		 * of a long-lived session.
+		 */
+		private final class Deletions extends DefaultRuleRuntimeEventListener {
+
+			@Override
+			public void objectDeleted(ObjectDeletedEvent event) {
+				if (event.getOldObject() instanceof MissionAssignment) {
+					drop();
+				}
+			}
+		}
+	}
+}
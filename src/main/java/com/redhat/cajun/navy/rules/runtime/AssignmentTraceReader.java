@@ -0,0 +1,168 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reader of the logs of an AssignmentTraceLog, and a command line tool printing them
+ * as text, one line per choice and per candidate:
+ *
+ *   java -cp ... com.redhat.cajun.navy.rules.runtime.AssignmentTraceReader trace.log [incident]
+ *
+ * With an incident id, only the executions with a choice or a candidate for that
+ * incident are printed.
+ *
+ * A log is mapped in windows of the segment size of the AssignmentTraceLog, one after
+ * the other, so it can be larger than the 2 GB of a single mapping.
+ */
+public class AssignmentTraceReader {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 2) {
+			System.err.println("Usage: AssignmentTraceReader <trace log> [incident id]");
+			System.exit(2);
+		}
+		String incident = args.length == 2 ? args[1] : null;
+		read(Paths.get(args[0]), execution -> {
+			if (incident != null && !concerns(execution, incident)) {
+				return;
+			}
+			System.out.println("execution " + execution.getTimestamp());
+			for (TracedExecution.Choice choice : execution.getChoices()) {
+				System.out.println("  " + choice);
+			}
+			for (TracedExecution.Candidate candidate : execution.getCandidates()) {
+				System.out.println("    " + candidate);
+			}
+		});
+	}
+
+	private static boolean concerns(TracedExecution execution, String incident) {
+		for (TracedExecution.Choice choice : execution.getChoices()) {
+			if (incident.equals(choice.getIncidentId())) {
+				return true;
+			}
+		}
+		for (TracedExecution.Candidate candidate : execution.getCandidates()) {
+			if (incident.equals(candidate.getIncidentId())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/***
+	 * Read the executions of the log, in the order they were written.
+	 *
+	 * @param file
+	 * @param consumer
+	 * @throws IOException when the file can't be read or isn't a trace log
+	 */
+	public static void read(Path file, Consumer<TracedExecution> consumer) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			scan(channel, AssignmentTraceLog.DEFAULT_SEGMENT, consumer);
+		}
+	}
+
+	/***
+	 * @param channel
+	 * @param window the size in bytes of the regions of the file mapped at once
+	 * @return the position after the last record of the log
+	 * @throws IOException when the file can't be read or isn't a trace log
+	 */
+	static long end(FileChannel channel, int window) throws IOException {
+		return scan(channel, window, null);
+	}
+
+	/***
+	 * Walk the records of the log, mapping one window of the file at a time, or a larger
+	 * one for a record that doesn't fit in a window.
+	 *
+	 * @param channel
+	 * @param window the size in bytes of the regions of the file mapped at once
+	 * @param consumer the consumer of the executions, can be null
+	 * @return the position after the last record of the log
+	 * @throws IOException when the file can't be read or isn't a trace log
+	 */
+	private static long scan(FileChannel channel, int window, Consumer<TracedExecution> consumer) throws IOException {
+		long size = channel.size();
+		header(channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, AssignmentTraceLog.HEADER)));
+		long position = AssignmentTraceLog.HEADER;
+		long base = position;
+		MappedByteBuffer buffer = map(channel, base, window, size);
+		while (position + 4 <= size) {
+			if (position + 4 > base + buffer.limit()) {
+				base = position;
+				buffer = map(channel, base, window, size);
+			}
+			int length = buffer.getInt((int) (position - base));
+			if (length <= 0 || position + 4 + length > size) {
+				break;
+			}
+			if (position + 4 + length > base + buffer.limit()) {
+				base = position;
+				buffer = map(channel, base, Math.max(window, 4 + length), size);
+			}
+			if (consumer != null) {
+				ByteBuffer record = buffer.duplicate();
+				int offset = (int) (position - base);
+				record.position(offset + 4);
+				record.limit(offset + 4 + length);
+				consumer.accept(decode(record));
+			}
+			position += 4 + length;
+		}
+		return position;
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long from, int length, long size) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(length, size - from));
+	}
+
+	private static void header(ByteBuffer buffer) throws IOException {
+		if (buffer.limit() < AssignmentTraceLog.HEADER || buffer.getInt(0) != AssignmentTraceLog.MAGIC) {
+			throw new IOException("Not an assignment trace log");
+		}
+		int version = buffer.getInt(4);
+		if (version != AssignmentTraceLog.VERSION) {
+			throw new IOException("Unsupported assignment trace log version " + version);
+		}
+	}
+
+	private static TracedExecution decode(ByteBuffer record) throws IOException {
+		long timestamp = record.getLong();
+		int missions = record.getShort() & 0xffff;
+		List<TracedExecution.Choice> choices = new ArrayList<>(missions);
+		for (int i = 0; i < missions; i++) {
+			choices.add(new TracedExecution.Choice(getUTF(record), getUTF(record), getUTF(record)));
+		}
+		int count = record.getInt();
+		List<TracedExecution.Candidate> candidates = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			candidates.add(new TracedExecution.Candidate(getUTF(record), getUTF(record), record.getDouble(),
+					record.getInt(), record.getInt(), record.getInt(), record.getInt(), record.getInt()));
+		}
+		return new TracedExecution(timestamp, choices, candidates);
+	}
+
+	/**
+	 * @return the string written in the format of DataOutput.writeUTF, null when empty
+	 */
+	private static String getUTF(ByteBuffer record) throws IOException {
+		int length = record.getShort(record.position()) & 0xffff;
+		byte[] bytes = new byte[2 + length];
+		record.get(bytes);
+		String value = new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+		return value.isEmpty() ? null : value;
+	}
+}
@@ -0,0 +1,102 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.redhat.cajun.navy.rules.DerivedPriority;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Status;
+
+/**
+ * Pre-evaluation of the priority gating of the AssignmentPredicate rules: the
+ * IncidentPriority, its average priority, the escalation and the number of
+ * Responders. An incident none of the rules would create an AssignmentPredicate for is
+ * DEFERRED without a session, so during a surge the low priority incidents don't index
+ * or insert any Responder nor fire any rule. The others are evaluated by the rules as
+ * before, and an incident without an IncidentPriority is always evaluated.
+ *
+ * The AssignmentExecutor, the AssignmentSessionPool, the StatefulAssignmentSession and
+ * the AssignmentIntake use the filter they are given, and return the Mission of a
+ * deferred incident UNASSIGNED, as the rules do.
+ *
+ * Counts the incidents deferred and evaluated. Expose them with registerMBean, or read
+ * them directly. Thread safe.
+ */
+public class DeferredIncidentFilter implements DeferredIncidentFilterMXBean {
+
+	public static final String OBJECT_NAME = "com.redhat.cajun.navy.rules:type=DeferredIncidentFilter";
+
+	public enum Result {
+		/** none of the AssignmentPredicate rules would fire for the incident */
+		DEFERRED,
+		/** the incident is evaluated by the rules */
+		EVALUATE
+	}
+
+	private final LongAdder deferred = new LongAdder();
+
+	private final LongAdder evaluated = new LongAdder();
+
+	/***
+	 * @param priority the IncidentPriority of the incident, can be null
+	 * @param responders the number of Responders the incident would be evaluated against
+	 * @return DEFERRED when the incident doesn't need to be evaluated by the rules
+	 */
+	public Result evaluate(IncidentPriority priority, int responders) {
+		if (priority == null || DerivedPriority.isAssignable(priority, responders)) {
+			evaluated.increment();
+			return Result.EVALUATE;
+		}
+		deferred.increment();
+		return Result.DEFERRED;
+	}
+
+	/***
+	 * The check of the AssignmentExecutor, the AssignmentSessionPool, the
+	 * StatefulAssignmentSession and the AssignmentIntake before they evaluate an incident.
+	 *
+	 * @param filter the filter of the caller, null when every incident is evaluated
+	 * @param priority the IncidentPriority of the incident, can be null
+	 * @param responders the number of Responders the incident would be evaluated against
+	 * @return true when the filter defers the incident
+	 */
+	static boolean defers(DeferredIncidentFilter filter, IncidentPriority priority, int responders) {
+		return filter != null && filter.evaluate(priority, responders) == Result.DEFERRED;
+	}
+
+	/**
+	 * @return the Mission of a deferred incident
+	 */
+	static Mission deferred(Mission mission) {
+		mission.setStatus(Status.UNASSIGNED);
+		return mission;
+	}
+
+	public ObjectName registerMBean(String name) throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = new ObjectName(OBJECT_NAME + ",name=" + ObjectName.quote(name));
+		server.registerMBean(this, objectName);
+		return objectName;
+	}
+
+	/**
+	 * @return the number of incidents deferred without a session
+	 */
+	@Override
+	public long getDeferred() {
+		return deferred.sum();
+	}
+
+	/**
+	 * @return the number of incidents passed on to the rules
+	 */
+	@Override
+	public long getEvaluated() {
+		return evaluated.sum();
+	}
+}
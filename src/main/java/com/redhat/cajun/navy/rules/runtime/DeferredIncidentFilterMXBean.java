@@ -0,0 +1,11 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+/**
+ * The JMX view of a DeferredIncidentFilter.
+ */
+public interface DeferredIncidentFilterMXBean {
+
+	long getDeferred();
+
+	long getEvaluated();
+}
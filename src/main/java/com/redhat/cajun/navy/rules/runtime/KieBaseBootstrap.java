@@ -0,0 +1,308 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.drools.core.util.DroolsStreamUtils;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+
+/**
+ * Eager build of the cajun-navy-kbase on startup, with a file cache of the built
+ * KieBase and a JIT warm-up, so the first incidents after a scale out don't pay for
+ * either.
+ *
+ * The cached KieBase is keyed by the SHA-256 of the kjar and the Drools version, so a
+ * new kjar or a new Drools is built again. A cache that can't be read is built again
+ * and overwritten.
+ *
+ * The cache is deserialized, so it is only read from a directory and a file owned by
+ * the user running the JVM that nobody else can write. The directory is created
+ * accessible to the owner only; when an existing one is writable by others, the
+ * KieBase is built without the cache.
+ *
+ * The warm-up runs a synthetic workload of incidents and Responders until the time of
+ * a round of executions settles, or the time budget runs out.
+ */
+public class KieBaseBootstrap {
+
+	public static final String KBASE = "cajun-navy-kbase";
+
+	public static final String KSESSION = "cajun-navy-ksession";
+
+	static final String RULES = "com.redhat.cajun.navy.rules/IncidentResponderAssignment.drl";
+
+	private static final int ROUND = 50;
+
+	private static final int MIN_ROUNDS = 5;
+
+	private static final double SETTLED = 0.1;
+
+	private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+	private final KieContainer container;
+
+	private final Path cacheDirectory;
+
+	private KieBase kieBase;
+
+	private boolean cached;
+
+	/***
+	 * @param container the container of the kjar
+	 * @param cacheDirectory the directory of the cache, created for the owner only when it
+	 *        doesn't exist
+	 */
+	public KieBaseBootstrap(KieContainer container, Path cacheDirectory) {
+		this.container = container;
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Load the KieBase from the cache, or build it and store it in the cache.
+	 *
+	 * @return the KieBase
+	 * @throws IOException when the cache can't be written
+	 */
+	public synchronized KieBase getKieBase() throws IOException {
+		if (kieBase != null) {
+			return kieBase;
+		}
+		createDirectory();
+		if (!trusted(cacheDirectory)) {
+			kieBase = container.getKieBase(KBASE);
+			return kieBase;
+		}
+		Path file = cacheDirectory.resolve(KBASE + "-" + checksum() + ".kbase");
+		if (Files.exists(file) && trusted(file)) {
+			try {
+				kieBase = (KieBase) DroolsStreamUtils.streamIn(Files.readAllBytes(file), container.getClassLoader());
+				cached = true;
+				return kieBase;
+			} catch (IOException | ClassNotFoundException | RuntimeException e) {
+				// stale or truncated, build it again
+			}
+		}
+		kieBase = container.getKieBase(KBASE);
+		Path temporary = Files.createTempFile(cacheDirectory, KBASE, ".tmp");
+		try {
+			Files.write(temporary, DroolsStreamUtils.streamOut(kieBase));
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+		return kieBase;
+	}
+
+	private void createDirectory() throws IOException {
+		if (Files.isDirectory(cacheDirectory)) {
+			return;
+		}
+		if (cacheDirectory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			Files.createDirectories(cacheDirectory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+		} else {
+			Files.createDirectories(cacheDirectory);
+		}
+	}
+
+	/**
+	 * @return true when the path is owned by the user running the JVM and, on a file
+	 *         system with POSIX permissions, neither its group nor others can write it
+	 */
+	private static boolean trusted(Path path) throws IOException {
+		UserPrincipal user;
+		try {
+			user = path.getFileSystem().getUserPrincipalLookupService()
+					.lookupPrincipalByName(System.getProperty("user.name"));
+		} catch (IOException | UnsupportedOperationException e) {
+			return false;
+		}
+		if (!user.equals(Files.getOwner(path))) {
+			return false;
+		}
+		PosixFileAttributeView posix = Files.getFileAttributeView(path, PosixFileAttributeView.class);
+		if (posix == null) {
+			return true;
+		}
+		Set<PosixFilePermission> permissions = posix.readAttributes().permissions();
+		return !permissions.contains(PosixFilePermission.GROUP_WRITE)
+				&& !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+	}
+
+	/**
+	 * @return true when the KieBase was loaded from the cache
+	 */
+	public boolean isCached() {
+		return cached;
+	}
+
+	public StatelessKieSession newStatelessKieSession() throws IOException {
+		return getKieBase().newStatelessKieSession(container.getKieSessionConfiguration(KSESSION));
+	}
+
+	/***
+	 * Run the synthetic workload on the KieBase until the time of a round of
+	 * executions changes by less than 10% from the previous round.
+	 *
+	 * @param budget the time budget in milliseconds
+	 * @return the number of executions
+	 * @throws IOException when the cache can't be written
+	 */
+	public int warmUp(long budget) throws IOException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+		StatelessKieSession session = newStatelessKieSession();
+		Random random = new Random(42);
+		Responders responders = responders(random);
+
+		int executions = 0;
+		long previous = Long.MAX_VALUE;
+		for (int round = 1; System.nanoTime() < deadline; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < ROUND; i++) {
+				execute(session, responders, executions++, random);
+			}
+			long time = System.nanoTime() - start;
+			if (round >= MIN_ROUNDS && Math.abs(time - previous) < previous * SETTLED) {
+				break;
+			}
+			previous = time;
+		}
+		return executions;
+	}
+
+	private static void execute(StatelessKieSession session, Responders responders, int execution, Random random) {
+		Incident incident = new Incident();
+		incident.setId("warm-up-incident" + execution);
+		incident.setNumPeople(1 + random.nextInt(6));
+		incident.setMedicalNeeded(random.nextBoolean());
+		incident.setLatitude(coordinate(34, random));
+		incident.setLongitude(coordinate(-77, random));
+		incident.setReportedTime(System.currentTimeMillis());
+		incident.setReporterId("warm-up-reporter");
+
+		List<Command<?>> commands = new ArrayList<>();
+		commands.add(CommandFactory.newInsert(incident));
+		commands.add(CommandFactory.newInsert(responders));
+		if (random.nextBoolean()) {
+			IncidentPriority priority = new IncidentPriority();
+			priority.setIncidentId(incident.getId());
+			priority.setPriority(new BigDecimal(random.nextInt(20)));
+			priority.setAveragePriority(new BigDecimal(10));
+			priority.setIncidents(new BigDecimal(1 + random.nextInt(100)));
+			priority.setEscalated(random.nextBoolean());
+			priority.setEscalatedIncidents(new BigDecimal(random.nextInt(2)));
+			commands.add(CommandFactory.newInsert(priority));
+		}
+		commands.add(CommandFactory.newInsert(new Mission()));
+		commands.add(CommandFactory.newFireAllRules());
+		session.execute(CommandFactory.newBatchExecution(commands));
+	}
+
+	private static Responders responders(Random random) {
+		Responders responders = new Responders();
+		for (int i = 0; i < 200; i++) {
+			Responder responder = new Responder();
+			responder.setId("warm-up-responder" + i);
+			responder.setBoatCapacity(1 + random.nextInt(12));
+			responder.setHasMedical(random.nextInt(4) == 0);
+			responder.setPerson(random.nextInt(10) == 0);
+			responder.setLatitude(coordinate(34, random));
+			responder.setLongitude(coordinate(-77, random));
+			responders.add(responder);
+		}
+		return responders;
+	}
+
+	private static BigDecimal coordinate(double center, Random random) {
+		return new BigDecimal(center + (random.nextDouble() - 0.5) * 2).setScale(5, RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * @return the SHA-256 of the kjar of the rules, and the Drools version
+	 */
+	String checksum() throws IOException {
+		URL rules = container.getClassLoader().getResource(RULES);
+		if (rules == null) {
+			throw new IOException("Missing " + RULES);
+		}
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		String version = KieServices.class.getPackage().getImplementationVersion();
+		digest.update(String.valueOf(version).getBytes("UTF-8"));
+
+		if ("jar".equals(rules.getProtocol())) {
+			JarURLConnection connection = (JarURLConnection) rules.openConnection();
+			update(digest, path(connection.getJarFileURL()));
+		} else {
+			// exploded kjar, such as target/classes
+			Path root = path(rules).getParent().getParent();
+			List<Path> files;
+			try (Stream<Path> walk = Files.walk(root)) {
+				files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+			}
+			for (Path file : files) {
+				digest.update(root.relativize(file).toString().getBytes("UTF-8"));
+				update(digest, file);
+			}
+		}
+
+		StringBuilder checksum = new StringBuilder();
+		for (byte b : digest.digest()) {
+			checksum.append(String.format("%02x", b));
+		}
+		return checksum.toString();
+	}
+
+	private static void update(MessageDigest digest, Path file) throws IOException {
+		byte[] buffer = new byte[8192];
+		try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+			while (in.read(buffer) != -1) {
+				// digested while read
+			}
+		}
+	}
+
+	private static Path path(URL url) throws IOException {
+		try {
+			return Paths.get(url.toURI());
+		} catch (URISyntaxException e) {
+			throw new IOException(e);
+		}
+	}
+}
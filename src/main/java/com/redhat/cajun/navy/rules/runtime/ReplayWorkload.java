@@ -0,0 +1,266 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.redhat.cajun.navy.rules.model.Destination;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Responder;
+
+/**
+ * A recorded assignment workload: the changes of the Responders and the Destinations,
+ * and the incidents with their IncidentPriority and the recorded outcome of their
+ * Mission, in the order they happened.
+ *
+ * The workload is read from a CSV file, one event per line. The second column of each
+ * line is the time of the event in milliseconds, from any origin. Empty lines and lines
+ * starting with # are skipped. The events are:
+ * <ul>
+ * <li>responder,time,id,latitude,longitude,boat capacity,has medical,person</li>
+ * <li>remove responder,time,id</li>
+ * <li>destination,time,name,latitude,longitude</li>
+ * <li>incident,time,id,latitude,longitude,number of people,medical needed,priority,
+ * average priority,incidents,escalated,escalated incidents,status,responder id</li>
+ * </ul>
+ * The priority columns of an incident are empty when there was no IncidentPriority,
+ * and the status and responder id columns are the recorded Mission, empty when it
+ * wasn't recorded.
+ */
+public class ReplayWorkload {
+
+	private final List<Event> events;
+
+	ReplayWorkload(List<Event> events) {
+		this.events = Collections.unmodifiableList(events);
+	}
+
+	public List<Event> getEvents() {
+		return events;
+	}
+
+	/**
+	 * @return the number of incidents of the workload
+	 */
+	public int getIncidentCount() {
+		int count = 0;
+		for (Event event : events) {
+			if (event instanceof IncidentEvent) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/***
+	 * @param csv
+	 * @return the workload
+	 * @throws IOException
+	 * @throws IllegalArgumentException when a line is invalid
+	 */
+	public static ReplayWorkload read(Reader csv) throws IOException {
+		List<Event> events = new ArrayList<>();
+		BufferedReader reader = new BufferedReader(csv);
+		int number = 0;
+		for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+			number++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] row = line.split(",", -1);
+			try {
+				events.add(event(row));
+			} catch (RuntimeException e) {
+				throw new IllegalArgumentException("Invalid event on line " + number + ": " + line, e);
+			}
+		}
+		return new ReplayWorkload(events);
+	}
+
+	private static Event event(String[] row) {
+		String type = row[0].trim();
+		switch (type) {
+		case "responder":
+			columns(row, 8);
+			Responder responder = new Responder();
+			responder.setId(text(row[2]));
+			responder.setLatitude(decimal(row[3]));
+			responder.setLongitude(decimal(row[4]));
+			responder.setBoatCapacity(integer(row[5]));
+			responder.setHasMedical(bool(row[6]));
+			responder.setPerson(bool(row[7]));
+			return new ResponderEvent(time(row), responder);
+		case "remove responder":
+			columns(row, 3);
+			return new RemoveResponderEvent(time(row), text(row[2]));
+		case "destination":
+			columns(row, 5);
+			Destination destination = new Destination();
+			destination.setName(text(row[2]));
+			destination.setLatitude(decimal(row[3]));
+			destination.setLongitude(decimal(row[4]));
+			return new DestinationEvent(time(row), destination);
+		case "incident":
+			columns(row, 14);
+			Incident incident = new Incident();
+			incident.setId(text(row[2]));
+			incident.setLatitude(decimal(row[3]));
+			incident.setLongitude(decimal(row[4]));
+			incident.setNumPeople(integer(row[5]));
+			incident.setMedicalNeeded(bool(row[6]));
+			incident.setReportedTime(time(row));
+			IncidentPriority priority = null;
+			if (text(row[7]) != null) {
+				priority = new IncidentPriority();
+				priority.setIncidentId(incident.getId());
+				priority.setPriority(decimal(row[7]));
+				priority.setAveragePriority(decimal(row[8]));
+				priority.setIncidents(decimal(row[9]));
+				priority.setEscalated(bool(row[10]));
+				priority.setEscalatedIncidents(decimal(row[11]));
+			}
+			return new IncidentEvent(time(row), incident, priority, text(row[12]), text(row[13]));
+		default:
+			throw new IllegalArgumentException("Unknown event " + type);
+		}
+	}
+
+	private static void columns(String[] row, int expected) {
+		if (row.length != expected) {
+			throw new IllegalArgumentException("Expected " + expected + " columns but got " + row.length);
+		}
+	}
+
+	private static long time(String[] row) {
+		return Long.parseLong(row[1].trim());
+	}
+
+	private static String text(String column) {
+		String value = column.trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	private static BigDecimal decimal(String column) {
+		String value = text(column);
+		return value == null ? null : new BigDecimal(value);
+	}
+
+	private static Integer integer(String column) {
+		String value = text(column);
+		return value == null ? null : Integer.valueOf(value);
+	}
+
+	private static Boolean bool(String column) {
+		String value = text(column);
+		return value == null ? null : Boolean.valueOf(value);
+	}
+
+	public abstract static class Event {
+
+		private final long time;
+
+		Event(long time) {
+			this.time = time;
+		}
+
+		/**
+		 * @return the time of the event in milliseconds
+		 */
+		public long getTime() {
+			return time;
+		}
+	}
+
+	public static final class ResponderEvent extends Event {
+
+		private final Responder responder;
+
+		ResponderEvent(long time, Responder responder) {
+			super(time);
+			this.responder = responder;
+		}
+
+		public Responder getResponder() {
+			return responder;
+		}
+	}
+
+	public static final class RemoveResponderEvent extends Event {
+
+		private final String id;
+
+		RemoveResponderEvent(long time, String id) {
+			super(time);
+			this.id = id;
+		}
+
+		public String getId() {
+			return id;
+		}
+	}
+
+	public static final class DestinationEvent extends Event {
+
+		private final Destination destination;
+
+		DestinationEvent(long time, Destination destination) {
+			super(time);
+			this.destination = destination;
+		}
+
+		public Destination getDestination() {
+			return destination;
+		}
+	}
+
+	public static final class IncidentEvent extends Event {
+
+		private final Incident incident;
+
+		private final IncidentPriority priority;
+
+		private final String status;
+
+		private final String responderId;
+
+		IncidentEvent(long time, Incident incident, IncidentPriority priority, String status, String responderId) {
+			super(time);
+			this.incident = incident;
+			this.priority = priority;
+			this.status = status;
+			this.responderId = responderId;
+		}
+
+		public Incident getIncident() {
+			return incident;
+		}
+
+		/**
+		 * @return the IncidentPriority, null when there was none
+		 */
+		public IncidentPriority getPriority() {
+			return priority;
+		}
+
+		/**
+		 * @return the recorded status of the Mission, null when it wasn't recorded
+		 */
+		public String getStatus() {
+			return status;
+		}
+
+		/**
+		 * @return the recorded Responder of the Mission, null when it wasn't recorded or
+		 * the Mission was unassigned
+		 */
+		public String getResponderId() {
+			return responderId;
+		}
+	}
+}
@@ -0,0 +1,221 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.kie.api.event.KieRuntimeEventManager;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.DefaultRuleRuntimeEventListener;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.runtime.KieSession;
+
+/**
+ * Per rule activation and firing counts, consequence time histograms, facts inserted
+ * per type and fireAllRules wall time, for the sessions it is attached to.
+ *
+ * The listeners look the rule and the fact class up in concurrent maps and record in
+ * LongAdders and LatencyHistograms, so they don't allocate once every rule has fired
+ * and every fact type was inserted, and they can be attached to the sessions of many
+ * threads. The consequence time is measured from beforeMatchFired to afterMatchFired,
+ * on the thread firing the rules.
+ *
+ * Expose it with registerMBean, or read it directly.
+ */
+public class RuleMetrics implements RuleMetricsMXBean {
+
+	public static final String OBJECT_NAME = "com.redhat.cajun.navy.rules:type=RuleMetrics";
+
+	private final ConcurrentMap<String, RuleStats> rules = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Class<?>, LongAdder> inserts = new ConcurrentHashMap<>();
+
+	private final LatencyHistogram fireAllRules = new LatencyHistogram();
+
+	private final ThreadLocal<long[]> started = ThreadLocal.withInitial(() -> new long[1]);
+
+	private final AgendaListener agendaListener = new AgendaListener();
+
+	private final RuntimeListener runtimeListener = new RuntimeListener();
+
+	/**
+	 * Record the rules fired and the facts inserted in the session, stateful or
+	 * stateless.
+	 */
+	public void attach(KieRuntimeEventManager session) {
+		session.addEventListener(agendaListener);
+		session.addEventListener(runtimeListener);
+	}
+
+	public void detach(KieRuntimeEventManager session) {
+		session.removeEventListener(agendaListener);
+		session.removeEventListener(runtimeListener);
+	}
+
+	/**
+	 * Fire all the rules of the session and record the wall time.
+	 *
+	 * @return the number of rules fired
+	 */
+	public int fireAllRules(KieSession session) {
+		long start = System.nanoTime();
+		try {
+			return session.fireAllRules();
+		} finally {
+			recordFireAllRules(System.nanoTime() - start);
+		}
+	}
+
+	/***
+	 * Record the wall time of a fireAllRules timed by the caller, such as the execution
+	 * of a stateless session.
+	 *
+	 * @param nanos
+	 */
+	public void recordFireAllRules(long nanos) {
+		fireAllRules.record(nanos);
+	}
+
+	/**
+	 * @return the consequence times of the rule, null when it never fired
+	 */
+	public LatencyHistogram getConsequenceTimes(String rule) {
+		RuleStats stats = rules.get(rule);
+		return stats == null ? null : stats.consequences;
+	}
+
+	public LatencyHistogram getFireAllRulesTimes() {
+		return fireAllRules;
+	}
+
+	/***
+	 * Register in the platform MBeanServer as OBJECT_NAME with the name key.
+	 *
+	 * @param name the name of the sessions, for instance the ksession
+	 * @return the ObjectName, to unregister it
+	 * @throws JMException
+	 */
+	public ObjectName registerMBean(String name) throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = new ObjectName(OBJECT_NAME + ",name=" + ObjectName.quote(name));
+		server.registerMBean(this, objectName);
+		return objectName;
+	}
+
+	@Override
+	public Map<String, Long> getActivations() {
+		Map<String, Long> activations = new TreeMap<>();
+		rules.forEach((rule, stats) -> activations.put(rule, stats.activations.sum()));
+		return activations;
+	}
+
+	@Override
+	public Map<String, Long> getFirings() {
+		Map<String, Long> firings = new TreeMap<>();
+		rules.forEach((rule, stats) -> firings.put(rule, stats.consequences.getCount()));
+		return firings;
+	}
+
+	@Override
+	public Map<String, Double> getConsequenceMeanMicros() {
+		return consequences(LatencyHistogram::getMean);
+	}
+
+	@Override
+	public Map<String, Double> getConsequenceP99Micros() {
+		return consequences(histogram -> histogram.getValueAtPercentile(99));
+	}
+
+	@Override
+	public Map<String, Double> getConsequenceTotalMicros() {
+		return consequences(LatencyHistogram::getTotal);
+	}
+
+	private Map<String, Double> consequences(ToDoubleFunction<LatencyHistogram> nanos) {
+		Map<String, Double> micros = new TreeMap<>();
+		rules.forEach((rule, stats) -> micros.put(rule, nanos.applyAsDouble(stats.consequences) / 1000));
+		return micros;
+	}
+
+	@Override
+	public Map<String, Long> getInserts() {
+		Map<String, Long> counts = new TreeMap<>();
+		inserts.forEach((type, count) -> counts.put(type.getName(), count.sum()));
+		return counts;
+	}
+
+	@Override
+	public long getFireAllRulesCount() {
+		return fireAllRules.getCount();
+	}
+
+	@Override
+	public double getFireAllRulesMeanMicros() {
+		return fireAllRules.getMean() / 1000;
+	}
+
+	@Override
+	public double getFireAllRulesP99Micros() {
+		return fireAllRules.getValueAtPercentile(99) / 1000.0;
+	}
+
+	@Override
+	public double getFireAllRulesMaxMicros() {
+		return fireAllRules.getMax() / 1000.0;
+	}
+
+	private RuleStats stats(String rule) {
+		RuleStats stats = rules.get(rule);
+		return stats != null ? stats : rules.computeIfAbsent(rule, name -> new RuleStats());
+	}
+
+	private static final class RuleStats {
+
+		final LongAdder activations = new LongAdder();
+
+		final LatencyHistogram consequences = new LatencyHistogram();
+	}
+
+	private final class AgendaListener extends DefaultAgendaEventListener {
+
+		@Override
+		public void matchCreated(MatchCreatedEvent event) {
+			stats(event.getMatch().getRule().getName()).activations.increment();
+		}
+
+		@Override
+		public void beforeMatchFired(BeforeMatchFiredEvent event) {
+			started.get()[0] = System.nanoTime();
+		}
+
+		@Override
+		public void afterMatchFired(AfterMatchFiredEvent event) {
+			long time = System.nanoTime() - started.get()[0];
+			stats(event.getMatch().getRule().getName()).consequences.record(time);
+		}
+	}
+
+	private final class RuntimeListener extends DefaultRuleRuntimeEventListener {
+
+		@Override
+		public void objectInserted(ObjectInsertedEvent event) {
+			Class<?> type = event.getObject().getClass();
+			LongAdder count = inserts.get(type);
+			if (count == null) {
+				count = inserts.computeIfAbsent(type, t -> new LongAdder());
+			}
+			count.increment();
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.util.Map;
+
+/**
+ * The JMX view of RuleMetrics. The maps are keyed by rule name, or by fact class for
+ * the inserts, and the times are in microseconds.
+ */
+public interface RuleMetricsMXBean {
+
+	Map<String, Long> getActivations();
+
+	Map<String, Long> getFirings();
+
+	Map<String, Double> getConsequenceMeanMicros();
+
+	Map<String, Double> getConsequenceP99Micros();
+
+	Map<String, Double> getConsequenceTotalMicros();
+
+	Map<String, Long> getInserts();
+
+	long getFireAllRulesCount();
+
+	double getFireAllRulesMeanMicros();
+
+	double getFireAllRulesP99Micros();
+
+	double getFireAllRulesMaxMicros();
+}
@@ -0,0 +1,135 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.ScoringWeights;
+
+/**
+ * Hot reload of the ScoringWeights from a CSV table on disk, polled the way a KieScanner
+ * polls for a new kjar.
+ *
+ * The weights are a fact, not rules, so a new table doesn't need a new KieBase: it is
+ * read on the polling thread and published with a single volatile write. Every
+ * execution inserts getWeights(), and an execution in flight keeps the weights it
+ * started with. A table that can't be read leaves the current weights in place.
+ *
+ * A change is detected by the SHA-256 of the content of the table, not by its
+ * modification time, and only a table with every factor is published, see
+ * ScoringWeights.readComplete: a table caught while it is written is rejected, and
+ * read again once the write completes, even within the same modification time.
+ */
+public class ScoringWeightsReloader implements AutoCloseable {
+
+	private final Path table;
+
+	private volatile ScoringWeights weights;
+
+	private volatile Exception lastError;
+
+	// the SHA-256 of the table of the published weights
+	private byte[] digest;
+
+	private ScheduledExecutorService scheduler;
+
+	/***
+	 * @param table the CSV table, see ScoringWeights.readComplete
+	 * @throws IOException when the table can't be read
+	 */
+	public ScoringWeightsReloader(Path table) throws IOException {
+		this.table = table;
+		scanNow();
+	}
+
+	/**
+	 * @return the weights of the last table read
+	 */
+	public ScoringWeights getWeights() {
+		return weights;
+	}
+
+	/**
+	 * @return the error of the last polling that failed to read the table, null when it
+	 * succeeded
+	 */
+	public Exception getLastError() {
+		return lastError;
+	}
+
+	/**
+	 * Read the table when its content changed since the weights were last published.
+	 *
+	 * @return true when new weights were published
+	 * @throws IOException when the table can't be read
+	 * @throws IllegalArgumentException when the table is invalid or misses a factor
+	 */
+	public synchronized boolean scanNow() throws IOException {
+		byte[] content = Files.readAllBytes(table);
+		byte[] read = sha256(content);
+		if (Arrays.equals(read, digest)) {
+			return false;
+		}
+		try (Reader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8)) {
+			weights = ScoringWeights.readComplete(reader);
+		}
+		digest = read;
+		return true;
+	}
+
+	private static byte[] sha256(byte[] content) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(content);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Poll the table in the background.
+	 *
+	 * @param interval the polling interval in milliseconds
+	 */
+	public synchronized void start(long interval) {
+		if (scheduler != null) {
+			throw new IllegalStateException("Already started");
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "scoring-weights-reloader");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	private void poll() {
+		try {
+			scanNow();
+			lastError = null;
+		} catch (IOException | RuntimeException e) {
+			lastError = e;
+		}
+	}
+
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	@Override
+	public void close() {
+		stop();
+	}
+}
@@ -0,0 +1,285 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.redhat.cajun.navy.rules.AssignmentSolver;
+import com.redhat.cajun.navy.rules.ResponderIndex;
+import com.redhat.cajun.navy.rules.ResponderSearch;
+import com.redhat.cajun.navy.rules.ScoringWeights;
+import com.redhat.cajun.navy.rules.ShelterLoad;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responder;
+import org.kie.api.event.rule.DefaultRuleRuntimeEventListener;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+
+/**
+ * Long-lived wrapper around the cajun-navy-stateful-ksession.
+ *
+ * The Responders are put in the ResponderIndex of the session once and then updated or
+ * removed as their position and availability change, instead of inserting the whole
+ * Responders fleet for every incident; the rules only match the index, so the
+ * Responders aren't facts of the session. Each incident is then evaluated against the
+ * already built network, and the facts inserted by the execution, by the caller or the
+ * rules, are tracked and deleted afterwards, without walking the fleet. A batch
+ * of incidents can be evaluated in one execution with assignAll.
+ *
+ * Not thread safe: one thread at a time, like the KieSession it wraps.
+ */
+public class StatefulAssignmentSession implements AutoCloseable {
+
+	public static final String KSESSION = "cajun-navy-stateful-ksession";
+
+	private final KieSession session;
+
+	private final ResponderIndex index = new ResponderIndex(Collections.<Responder>emptyList());
+
+	private final FactHandle indexHandle;
+
+	private FactHandle searchHandle;
+
+	private FactHandle solverHandle;
+
+	private FactHandle weightsHandle;
+
+	private ScoringWeights weights;
+
+	private FactHandle shelterLoadHandle;
+
+	private RuleMetrics metrics;
+
+	private DeferredIncidentFilter filter;
+
+	// the facts inserted during the current execution, in order
+	private final Set<FactHandle> inserted = new LinkedHashSet<>();
+
+	private boolean executing;
+
+	private boolean indexChanged;
+
+	public StatefulAssignmentSession(KieContainer container) {
+		this(container.newKieSession(KSESSION));
+	}
+
+	public StatefulAssignmentSession(KieSession session) {
+		this.session = session;
+		this.indexHandle = session.insert(index);
+		this.searchHandle = session.insert(new ResponderSearch());
+		session.addEventListener(new Insertions());
+	}
+
+	/**
+	 * Add the Responder, or replace the one with the same id.
+	 */
+	public void putResponder(Responder responder) {
+		index.put(responder);
+		indexChanged = true;
+	}
+
+	/**
+	 * Remove the Responder with the given id, when it is no longer available.
+	 *
+	 * @return true when the Responder was in the session
+	 */
+	public boolean removeResponder(String id) {
+		if (!index.remove(id)) {
+			return false;
+		}
+		indexChanged = true;
+		return true;
+	}
+
+	public int getResponderCount() {
+		return index.size();
+	}
+
+	public void setResponderSearch(ResponderSearch search) {
+		session.delete(searchHandle);
+		searchHandle = session.insert(search);
+	}
+
+	/**
+	 * Solve the batches of assignAll with the solver instead of the default greedy one.
+	 */
+	public void setAssignmentSolver(AssignmentSolver solver) {
+		if (solverHandle != null) {
+			session.delete(solverHandle);
+		}
+		solverHandle = session.insert(solver);
+	}
+
+	/**
+	 * Score with the weights instead of the ones of the kjar, for instance the weights of
+	 * a ScoringWeightsReloader before each execution. Nothing changes when they are
+	 * already the weights of the session.
+	 */
+	public void setScoringWeights(ScoringWeights weights) {
+		if (weights == this.weights) {
+			return;
+		}
+		if (weightsHandle != null) {
+			session.delete(weightsHandle);
+		}
+		this.weights = weights;
+		weightsHandle = session.insert(weights);
+	}
+
+	/**
+	 * Route the missions to the shelters with room, as tracked by the load, instead of
+	 * the nearest Destination. The load is kept up to date by the executions.
+	 */
+	public void setShelterLoad(ShelterLoad load) {
+		if (shelterLoadHandle != null) {
+			session.delete(shelterLoadHandle);
+		}
+		shelterLoadHandle = session.insert(load);
+	}
+
+	/**
+	 * Record the rules fired, the facts inserted and the fireAllRules time of the
+	 * executions in the metrics, or stop recording them when null.
+	 */
+	public void setRuleMetrics(RuleMetrics metrics) {
+		if (this.metrics != null) {
+			this.metrics.detach(session);
+		}
+		this.metrics = metrics;
+		if (metrics != null) {
+			metrics.attach(session);
+		}
+	}
+
+	/**
+	 * Return the Missions of the incidents deferred by assign without firing the rules.
+	 */
+	public void setDeferredIncidentFilter(DeferredIncidentFilter filter) {
+		this.filter = filter;
+	}
+
+	/***
+	 * Evaluate an incident against the Responders in the session.
+	 *
+	 * @param incident
+	 * @param priority the IncidentPriority of the incident, can be null
+	 * @param destinations can be null
+	 * @param mission the requested Mission, updated by the rules
+	 * @return the Mission
+	 */
+	public Mission assign(Incident incident, IncidentPriority priority, Destinations destinations, Mission mission) {
+		if (DeferredIncidentFilter.defers(filter, priority, index.size())) {
+			return DeferredIncidentFilter.deferred(mission);
+		}
+		execute(Collections.singletonList(incident),
+				priority == null ? Collections.<IncidentPriority>emptyList() : Collections.singletonList(priority),
+				destinations, Collections.singletonList(mission));
+		return mission;
+	}
+
+	/***
+	 * Evaluate a batch of incidents against the Responders in the session, in one
+	 * execution. A Responder is assigned to at most one of the incidents.
+	 *
+	 * @param incidents
+	 * @param priorities the IncidentPriorities of the incidents that have one
+	 * @param destinations can be null
+	 * @return the Missions, in the order of the incidents
+	 */
+	public List<Mission> assignAll(List<Incident> incidents, List<IncidentPriority> priorities, Destinations destinations) {
+		List<Mission> missions = new ArrayList<>(incidents.size());
+		for (Incident incident : incidents) {
+			Mission mission = new Mission();
+			mission.setIncidentId(incident.getId());
+			missions.add(mission);
+		}
+		execute(incidents, priorities, destinations, missions);
+		return missions;
+	}
+
+	private void execute(List<Incident> incidents, List<IncidentPriority> priorities, Destinations destinations,
+			List<Mission> missions) {
+		if (indexChanged) {
+			session.update(indexHandle, index);
+			indexChanged = false;
+		}
+		executing = true;
+		try {
+			for (Incident incident : incidents) {
+				session.insert(incident);
+			}
+			for (IncidentPriority priority : priorities) {
+				session.insert(priority);
+			}
+			if (destinations != null) {
+				session.insert(destinations);
+			}
+			for (Mission mission : missions) {
+				session.insert(mission);
+			}
+			if (metrics == null) {
+				session.fireAllRules();
+			} else {
+				metrics.fireAllRules(session);
+			}
+		} finally {
+			reset();
+		}
+	}
+
+	/**
+	 * Delete the facts inserted during the execution and still in the session, leaving
+	 * the index, the search, the solver, the weights and the shelter load.
+	 */
+	private void reset() {
+		try {
+			for (FactHandle handle : inserted.toArray(new FactHandle[inserted.size()])) {
+				// skipped when already deleted along with another one
+				if (inserted.remove(handle)) {
+					session.delete(handle);
+				}
+			}
+		} finally {
+			executing = false;
+			inserted.clear();
+		}
+	}
+
+	/**
+	 * Tracks the facts inserted during an execution, by execute or by the rules, and
+	 * forgets the ones the rules delete.
+	 */
+	private final class Insertions extends DefaultRuleRuntimeEventListener {
+
+		@Override
+		public void objectInserted(ObjectInsertedEvent event) {
+			if (executing) {
+				inserted.add(event.getFactHandle());
+			}
+		}
+
+		@Override
+		public void objectDeleted(ObjectDeletedEvent event) {
+			if (executing) {
+				inserted.remove(event.getFactHandle());
+			}
+		}
+	}
+
+	public KieSession getKieSession() {
+		return session;
+	}
+
+	@Override
+	public void close() {
+		session.dispose();
+	}
+}
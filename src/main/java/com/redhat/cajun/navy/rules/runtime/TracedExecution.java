@@ -0,0 +1,159 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An execution read back from an AssignmentTraceLog: the choice made for each
+ * Mission and the candidate MissionAssignments it was made from, with the points of
+ * each factor of their score.
+ */
+public class TracedExecution {
+
+	private final long timestamp;
+
+	private final List<Choice> choices;
+
+	private final List<Candidate> candidates;
+
+	TracedExecution(long timestamp, List<Choice> choices, List<Candidate> candidates) {
+		this.timestamp = timestamp;
+		this.choices = Collections.unmodifiableList(choices);
+		this.candidates = Collections.unmodifiableList(candidates);
+	}
+
+	/**
+	 * @return the time of the choice in milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public List<Choice> getChoices() {
+		return choices;
+	}
+
+	public List<Candidate> getCandidates() {
+		return candidates;
+	}
+
+	/**
+	 * The Mission after getAssignedMission or the solver of the batch.
+	 */
+	public static final class Choice {
+
+		private final String incidentId;
+
+		private final String responderId;
+
+		private final String status;
+
+		Choice(String incidentId, String responderId, String status) {
+			this.incidentId = incidentId;
+			this.responderId = responderId;
+			this.status = status;
+		}
+
+		/**
+		 * @return the incident of the Mission, null when it was unassigned
+		 */
+		public String getIncidentId() {
+			return incidentId;
+		}
+
+		/**
+		 * @return the chosen Responder, null when the Mission was unassigned
+		 */
+		public String getResponderId() {
+			return responderId;
+		}
+
+		public String getStatus() {
+			return status;
+		}
+
+		@Override
+		public String toString() {
+			return "choice incident=" + incidentId + " responder=" + responderId + " status=" + status;
+		}
+	}
+
+	/**
+	 * A MissionAssignment and the points of each factor of its score.
+	 */
+	public static final class Candidate {
+
+		private final String incidentId;
+
+		private final String responderId;
+
+		private final double distance;
+
+		private final int score;
+
+		private final int medical;
+
+		private final int spareCapacity;
+
+		private final int distancePoints;
+
+		private final int person;
+
+		Candidate(String incidentId, String responderId, double distance, int score, int medical,
+				int spareCapacity, int distancePoints, int person) {
+			this.incidentId = incidentId;
+			this.responderId = responderId;
+			this.distance = distance;
+			this.score = score;
+			this.medical = medical;
+			this.spareCapacity = spareCapacity;
+			this.distancePoints = distancePoints;
+			this.person = person;
+		}
+
+		public String getIncidentId() {
+			return incidentId;
+		}
+
+		public String getResponderId() {
+			return responderId;
+		}
+
+		/**
+		 * @return the distance in meters, NaN when there was none
+		 */
+		public double getDistance() {
+			return distance;
+		}
+
+		/**
+		 * @return the compatibility score of the MissionAssignment
+		 */
+		public int getScore() {
+			return score;
+		}
+
+		public int getMedical() {
+			return medical;
+		}
+
+		public int getSpareCapacity() {
+			return spareCapacity;
+		}
+
+		public int getDistancePoints() {
+			return distancePoints;
+		}
+
+		public int getPerson() {
+			return person;
+		}
+
+		@Override
+		public String toString() {
+			return "candidate incident=" + incidentId + " responder=" + responderId + " distance=" + distance
+					+ " score=" + score + " medical=" + medical + " spareCapacity=" + spareCapacity
+					+ " distancePoints=" + distancePoints + " person=" + person;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package com.redhat.cajun.navy.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.MissionAssignment;
+import com.redhat.cajun.navy.rules.model.Responder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName( "Cajun Navy Assignment Solver Tests" )
+public class AssignmentSolverTest {
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The first incident can be served by the first responder, or slightly worse by the second responder
+     *      The second incident can only be served by the first responder
+     *
+     *    Then:
+     *      The greedy solver gives the first responder to the first incident, and strands the second incident
+     *      The auction solver gives the second responder to the first incident, and the first responder to the second incident
+     */
+    @Test
+    void testAuctionDoesNotStrandAnIncident() {
+        Incident incident1 = incident("incident1");
+        Incident incident2 = incident("incident2");
+        Responder responder1 = responder("responder1");
+        Responder responder2 = responder("responder2");
+
+        List<MissionAssignment> assignments = new ArrayList<>();
+        assignments.add(assignment(incident1, responder1, 100));
+        assignments.add(assignment(incident1, responder2, 90));
+        assignments.add(assignment(incident2, responder1, 50));
+        AssignmentBatch batch = new AssignmentBatch(missions(incident1, incident2), assignments);
+
+        MissionAssignment[] greedy = new GreedyAssignmentSolver().solve(batch);
+        assertEquals(responder1, greedy[0].getResponder());
+        assertNull(greedy[1]);
+
+        MissionAssignment[] auction = new AuctionAssignmentSolver().solve(batch);
+        assertEquals(responder2, auction[0].getResponder());
+        assertEquals(responder1, auction[1].getResponder());
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Random sparse batches of up to 6 incidents and 6 responders are solved by the auction solver
+     *
+     *    Then:
+     *      No responder is assigned twice
+     *      As many missions are assigned as possible
+     *      The total compatibility score is the highest possible for that number of missions
+     */
+    @Test
+    void testAuctionIsOptimal() {
+        Random random = new Random(1);
+        for (int run = 0; run < 500; run++) {
+            int incidents = 1 + random.nextInt(6);
+            int responders = 1 + random.nextInt(6);
+            Incident[] incident = new Incident[incidents];
+            for (int i = 0; i < incidents; i++) {
+                incident[i] = incident("incident" + i);
+            }
+            int[][] scores = new int[incidents][responders];
+            List<MissionAssignment> assignments = new ArrayList<>();
+            for (int j = 0; j < responders; j++) {
+                Responder responder = responder("responder" + j);
+                for (int i = 0; i < incidents; i++) {
+                    scores[i][j] = Integer.MIN_VALUE;
+                    if (random.nextInt(3) > 0) {
+                        scores[i][j] = random.nextInt(400) - 100;
+                        assignments.add(assignment(incident[i], responder, scores[i][j]));
+                    }
+                }
+            }
+            AssignmentBatch batch = new AssignmentBatch(missions(incident), assignments);
+
+            MissionAssignment[] solution = new AuctionAssignmentSolver().solve(batch);
+
+            Set<String> booked = new HashSet<>();
+            long assigned = 0;
+            long total = 0;
+            for (int i = 0; i < incidents; i++) {
+                if (solution[i] != null) {
+                    assertEquals(incident[i], solution[i].getIncident());
+                    assertTrue(booked.add(solution[i].getResponder().getId()));
+                    assigned++;
+                    total += solution[i].getCompatibilityScore();
+                }
+            }
+            long[] best = best(scores, 0, new boolean[responders]);
+            assertEquals(best[0], assigned);
+            assertEquals(best[1], total);
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The auction solver has no time budget
+     *
+     *    Then:
+     *      The missions are still assigned, greedily, and no responder is assigned twice
+     */
+    @Test
+    void testAuctionWithoutTimeBudgetCompletesGreedily() {
+        Incident incident1 = incident("incident1");
+        Incident incident2 = incident("incident2");
+        Responder responder1 = responder("responder1");
+        Responder responder2 = responder("responder2");
+
+        List<MissionAssignment> assignments = new ArrayList<>();
+        assignments.add(assignment(incident1, responder1, 100));
+        assignments.add(assignment(incident1, responder2, 90));
+        assignments.add(assignment(incident2, responder1, 50));
+        assignments.add(assignment(incident2, responder2, 40));
+        AssignmentBatch batch = new AssignmentBatch(missions(incident1, incident2), assignments);
+
+        MissionAssignment[] solution = new AuctionAssignmentSolver(0).solve(batch);
+        assertNotNull(solution[0]);
+        assertNotNull(solution[1]);
+        assertTrue(solution[0].getResponder() != solution[1].getResponder());
+    }
+
+    /**
+     * @return the highest number of assigned incidents from the given one on, and the highest total score for it
+     */
+    private static long[] best(int[][] scores, int i, boolean[] booked) {
+        if (i == scores.length) {
+            return new long[] { 0, 0 };
+        }
+        long[] best = best(scores, i + 1, booked);
+        for (int j = 0; j < booked.length; j++) {
+            if (!booked[j] && scores[i][j] != Integer.MIN_VALUE) {
+                booked[j] = true;
+                long[] rest = best(scores, i + 1, booked);
+                booked[j] = false;
+                long assigned = rest[0] + 1;
+                long total = rest[1] + scores[i][j];
+                if (assigned > best[0] || (assigned == best[0] && total > best[1])) {
+                    best = new long[] { assigned, total };
+                }
+            }
+        }
+        return best;
+    }
+
+    private static List<Mission> missions(Incident... incidents) {
+        List<Mission> missions = new ArrayList<>();
+        for (Incident incident : incidents) {
+            Mission mission = new Mission();
+            mission.setIncidentId(incident.getId());
+            missions.add(mission);
+        }
+        return missions;
+    }
+
+    private static MissionAssignment assignment(Incident incident, Responder responder, int score) {
+        MissionAssignment assignment = new MissionAssignment(incident, responder);
+        assignment.setCompatibilityScore(score);
+        return assignment;
+    }
+
+    private static Incident incident(String id) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setNumPeople(2);
+        return incident;
+    }
+
+    private static Responder responder(String id) {
+        Responder responder = new Responder();
+        responder.setId(id);
+        responder.setBoatCapacity(4);
+        return responder;
+    }
+}
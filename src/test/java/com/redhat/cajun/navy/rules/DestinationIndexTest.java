@@ -0,0 +1,124 @@
+package com.redhat.cajun.navy.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.redhat.cajun.navy.rules.model.Destination;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName( "Cajun Navy Destination Index Tests" )
+public class DestinationIndexTest {
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Destinations with and without a position are added, some of them after the index was searched
+     *      Positions around and far from the Destinations look for their nearest Destination
+     *
+     *    Then:
+     *      The nearest Destination is the one with the shortest distance, the first added when two are as near
+     *      The Destinations are not modified
+     */
+    @Test
+    void testNearestIsTheDestinationWithTheShortestDistance() {
+        Random random = new Random(1);
+        DestinationIndex index = new DestinationIndex();
+        assertNull(index.nearest(new BigDecimal("34"), new BigDecimal("-77")));
+
+        List<Destination> destinations = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Destination destination = destination("destination" + i, random);
+            index.add(destination);
+            if (destination.getLatitude() != null) {
+                destinations.add(destination);
+            }
+            if (i == 0) {
+                // the same position as the first one, added later
+                Destination twin = new Destination();
+                twin.setName("twin");
+                twin.setLatitude(destination.getLatitude());
+                twin.setLongitude(destination.getLongitude());
+                index.add(twin);
+                destinations.add(twin);
+            }
+            if (i % 50 == 0) {
+                assertNearest(index, destinations, random);
+            }
+        }
+        assertEquals(destinations.size(), index.size());
+        for (int i = 0; i < 200; i++) {
+            assertNearest(index, destinations, random);
+        }
+        assertSame(destinations.get(0), index.nearest(destinations.get(0).getLatitude(), destinations.get(0).getLongitude()));
+        assertNull(index.nearest(null, new BigDecimal("-77")));
+        for (Destination destination : destinations) {
+            assertNull(destination.getDistance());
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are many Destinations within and around a grid cell of the index
+     *      Many incidents in the same grid cell look for their nearest Destination
+     *
+     *    Then:
+     *      Each incident gets the Destination with the shortest distance to its own position
+     */
+    @Test
+    void testNearestIsExactForIncidentsInTheSameCell() {
+        Random random = new Random(2);
+        List<Destination> destinations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Destination destination = new Destination();
+            destination.setName("destination" + i);
+            destination.setLatitude(BigDecimal.valueOf(34 + random.nextDouble() * 0.3 - 0.1));
+            destination.setLongitude(BigDecimal.valueOf(-77 + random.nextDouble() * 0.3 - 0.1));
+            destinations.add(destination);
+        }
+        DestinationIndex index = new DestinationIndex(destinations);
+        for (int i = 0; i < 500; i++) {
+            assertNearest(index, destinations, BigDecimal.valueOf(34 + random.nextDouble() * 0.1),
+                    BigDecimal.valueOf(-77 + random.nextDouble() * 0.1));
+        }
+    }
+
+    private static void assertNearest(DestinationIndex index, List<Destination> destinations, Random random) {
+        assertNearest(index, destinations, BigDecimal.valueOf(34 + (random.nextDouble() - 0.5) * 4),
+                BigDecimal.valueOf(-77 + (random.nextDouble() - 0.5) * 4));
+    }
+
+    private static void assertNearest(DestinationIndex index, List<Destination> destinations, BigDecimal latitude,
+            BigDecimal longitude) {
+        Destination expected = null;
+        double shortest = Double.MAX_VALUE;
+        for (Destination destination : destinations) {
+            double distance = DistanceHelper.calculateDistance(latitude, destination.getLatitude(),
+                    longitude, destination.getLongitude());
+            if (distance < shortest) {
+                shortest = distance;
+                expected = destination;
+            }
+        }
+        assertSame(expected, index.nearest(latitude, longitude));
+    }
+
+    private static Destination destination(String name, Random random) {
+        Destination destination = new Destination();
+        destination.setName(name);
+        if (random.nextInt(10) > 0) {
+            destination.setLatitude(BigDecimal.valueOf(34 + random.nextDouble() - 0.5).setScale(3, BigDecimal.ROUND_HALF_UP));
+            destination.setLongitude(BigDecimal.valueOf(-77 + random.nextDouble() - 0.5).setScale(3, BigDecimal.ROUND_HALF_UP));
+        }
+        return destination;
+    }
+}
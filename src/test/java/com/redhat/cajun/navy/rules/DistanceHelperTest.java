@@ -0,0 +1,105 @@
+package com.redhat.cajun.navy.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName( "Cajun Navy Distance Tests" )
+public class DistanceHelperTest {
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The distance between two positions is calculated from radians in HAVERSINE mode
+     *
+     *    Then:
+     *      It is the same as the distance calculated from degrees
+     */
+    @Test
+    void testHaversineFromRadiansMatchesDegrees() {
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            double lat1 = (random.nextDouble() - 0.5) * 160;
+            double lon1 = (random.nextDouble() - 0.5) * 360;
+            double lat2 = (random.nextDouble() - 0.5) * 160;
+            double lon2 = (random.nextDouble() - 0.5) * 360;
+
+            double expected = DistanceHelper.calculateDistance(lat1, lat2, lon1, lon2);
+            double actual = DistanceHelper.calculateDistance(GeoPosition.ofDegrees(lat1, lon1),
+                    GeoPosition.ofDegrees(lat2, lon2), DistanceHelper.Mode.HAVERSINE);
+            assertEquals(expected, actual, 1e-6);
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The distance between two positions less than 50 km apart, between latitudes -70 and 70,
+     *      is calculated in the approximate modes
+     *
+     *    Then:
+     *      FAST_HAVERSINE is within 1 mm of HAVERSINE
+     *      EQUIRECTANGULAR is within 2 m of HAVERSINE
+     */
+    @Test
+    void testApproximateModesErrorBoundUnderFiftyKm() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            double lat1 = (random.nextDouble() - 0.5) * 140;
+            double lon1 = (random.nextDouble() - 0.5) * 360;
+            double bearing = random.nextDouble() * 2 * Math.PI;
+            double degrees = random.nextDouble() * 0.45;
+            double lat2 = lat1 + degrees * Math.cos(bearing);
+            double lon2 = lon1 + degrees * Math.sin(bearing) / Math.cos(Math.toRadians(lat1));
+
+            GeoPosition from = GeoPosition.ofDegrees(lat1, lon1);
+            GeoPosition to = GeoPosition.ofDegrees(lat2, lon2);
+            double exact = DistanceHelper.calculateDistance(from, to, DistanceHelper.Mode.HAVERSINE);
+            if (exact > 50000) {
+                continue;
+            }
+            assertEquals(exact, DistanceHelper.calculateDistance(from, to, DistanceHelper.Mode.FAST_HAVERSINE), 0.001);
+            assertEquals(exact, DistanceHelper.calculateDistance(from, to, DistanceHelper.Mode.EQUIRECTANGULAR), 2);
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The distances between one position and many are calculated in one batch
+     *
+     *    Then:
+     *      Each of them is the same as the distance calculated on its own, in every mode
+     */
+    @Test
+    void testBatchDistancesMatchSingleDistances() {
+        Random random = new Random(1);
+        int length = 1000;
+        GeoPosition from = GeoPosition.ofDegrees(34, -77);
+        GeoPosition[] positions = new GeoPosition[length];
+        double[] lats = new double[length];
+        double[] lons = new double[length];
+        double[] cosLats = new double[length];
+        for (int i = 0; i < length; i++) {
+            positions[i] = GeoPosition.ofDegrees(34 + random.nextDouble() - 0.5, -77 + random.nextDouble() - 0.5);
+            lats[i] = positions[i].getLatitude();
+            lons[i] = positions[i].getLongitude();
+            cosLats[i] = positions[i].getCosLatitude();
+        }
+
+        double[] distances = new double[length + 1];
+        for (DistanceHelper.Mode mode : DistanceHelper.Mode.values()) {
+            DistanceHelper.calculateDistances(from, lats, lons, cosLats, distances, length, mode);
+            for (int i = 0; i < length; i++) {
+                assertEquals(DistanceHelper.calculateDistance(from, positions[i], mode), distances[i], 1e-9);
+            }
+            assertEquals(0, distances[length]);
+        }
+    }
+}
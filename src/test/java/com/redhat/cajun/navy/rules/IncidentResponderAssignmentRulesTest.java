@@ -1,7 +1,9 @@
 package com.redhat.cajun.navy.rules;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
@@ -1930,4 +1932,473 @@ public class IncidentResponderAssignmentRulesTest {
         assertEquals(Status.ASSIGNED, mission.getStatus());
     }
 
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are two responders
+     *      There is an incident
+     *      There is need for medical assistance
+     *      Both responders can fit the number of people in their boat
+     *      The first responder is less than 5 km away from the incident
+     *      The second responder can provide medical assistance but is more than 100 km away from the incident
+     *
+     *    Then:
+     *      Only one MissionAssignment is created, for the first responder
+     *      A mission is assigned to the first responder - the second responder is outside of the search radius
+     */
+    @Test
+    void testAssignMissionOnlyConsidersRespondersNearTheIncident() {
+
+        Incident incident = new Incident();
+        incident.setId("incident1");
+        incident.setNumPeople(2);
+        incident.setMedicalNeeded(true);
+        incident.setLatitude(new BigDecimal("34.00000"));
+        incident.setLongitude(new BigDecimal("-77.00000"));
+        incident.setReportedTime(System.currentTimeMillis());
+        incident.setReporterId("reporter1");
+
+        Responder responder1 = new Responder();
+        responder1.setId("responder1");
+        responder1.setBoatCapacity(3);
+        responder1.setHasMedical(false);
+        responder1.setLatitude(new BigDecimal("34.03000"));
+        responder1.setLongitude(new BigDecimal("-77.04000"));
+
+        Responder responder2 = new Responder();
+        responder2.setId("responder2");
+        responder2.setBoatCapacity(2);
+        responder2.setHasMedical(true);
+        responder2.setLatitude(new BigDecimal("35.03000"));
+        responder2.setLongitude(new BigDecimal("-78.04000"));
+
+        Responders responders = new Responders();
+        responders.add(responder1);
+        responders.add(responder2);
+
+        StatelessKieSession session = KCONTAINER.newStatelessKieSession( "cajun-navy-ksession");
+
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incident));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(new Mission()));
+        commands.add(CommandFactory.newFireAllRules());
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(MissionAssignment.class), "missionassignment"));
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(Mission.class), "mission"));
+
+        Command<?> batch = CommandFactory.newBatchExecution(commands);
+        ExecutionResults results = (ExecutionResults) session.execute(batch);
+
+        assertNotNull(results.getValue("missionassignment"));
+        assertTrue(results.getValue("missionassignment") instanceof List);
+        assertEquals(1, ((List)results.getValue("missionassignment")).size());
+        MissionAssignment missionAssignment = (MissionAssignment) ((List)(results.getValue("missionassignment"))).get(0);
+        assertEquals(responder1, missionAssignment.getResponder());
+
+        assertNotNull(results.getValue("mission"));
+        assertTrue(results.getValue("mission") instanceof List);
+        assertEquals(1, ((List)results.getValue("mission")).size());
+        Mission mission = (Mission) ((List)(results.getValue("mission"))).get(0);
+        assertEquals(responder1.getId(), mission.getResponderId());
+        assertEquals(Status.ASSIGNED, mission.getStatus());
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are two responders
+     *      There is an incident
+     *      The search radius is 10 km
+     *      The first responder is less than 5 km away from the incident but can NOT fit the number of people in their boat
+     *      The second responder is more than 15 km away from the incident and can fit the number of people in their boat
+     *
+     *    Then:
+     *      The search radius is widened
+     *      A mission is assigned to the second responder
+     */
+    @Test
+    void testAssignMissionWidensTheSearchRadiusWhenNoResponderNearbyCanFitThePeople() {
+
+        Incident incident = new Incident();
+        incident.setId("incident1");
+        incident.setNumPeople(5);
+        incident.setMedicalNeeded(false);
+        incident.setLatitude(new BigDecimal("34.00000"));
+        incident.setLongitude(new BigDecimal("-77.00000"));
+        incident.setReportedTime(System.currentTimeMillis());
+        incident.setReporterId("reporter1");
+
+        Responder responder1 = new Responder();
+        responder1.setId("responder1");
+        responder1.setBoatCapacity(4);
+        responder1.setHasMedical(false);
+        responder1.setLatitude(new BigDecimal("34.03000"));
+        responder1.setLongitude(new BigDecimal("-77.04000"));
+
+        Responder responder2 = new Responder();
+        responder2.setId("responder2");
+        responder2.setBoatCapacity(6);
+        responder2.setHasMedical(false);
+        responder2.setLatitude(new BigDecimal("34.15000"));
+        responder2.setLongitude(new BigDecimal("-77.04000"));
+
+        Responders responders = new Responders();
+        responders.add(responder1);
+        responders.add(responder2);
+
+        StatelessKieSession session = KCONTAINER.newStatelessKieSession( "cajun-navy-ksession");
+
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incident));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(new ResponderSearch(10000, 40000, 0)));
+        commands.add(CommandFactory.newInsert(new Mission()));
+        commands.add(CommandFactory.newFireAllRules());
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(Mission.class), "mission"));
+
+        Command<?> batch = CommandFactory.newBatchExecution(commands);
+        ExecutionResults results = (ExecutionResults) session.execute(batch);
+
+        assertNotNull(results.getValue("mission"));
+        assertTrue(results.getValue("mission") instanceof List);
+        assertEquals(1, ((List)results.getValue("mission")).size());
+        Mission mission = (Mission) ((List)(results.getValue("mission"))).get(0);
+        assertEquals(responder2.getId(), mission.getResponderId());
+        assertEquals(Status.ASSIGNED, mission.getStatus());
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are two responders
+     *      There are two incidents, each with a requested mission for the incident
+     *      The first responder is the nearest to both incidents
+     *
+     *    Then:
+     *      A MissionAssignment is created for each incident and each responder
+     *      Both missions are assigned
+     *      Each responder is assigned to only one of the incidents
+     */
+    @Test
+    void testAssignMissionsForBatchOfIncidents() {
+
+        Incident incident1 = new Incident();
+        incident1.setId("incident1");
+        incident1.setNumPeople(2);
+        incident1.setMedicalNeeded(false);
+        incident1.setLatitude(new BigDecimal("34.00000"));
+        incident1.setLongitude(new BigDecimal("-77.00000"));
+        incident1.setReportedTime(System.currentTimeMillis());
+        incident1.setReporterId("reporter1");
+
+        Incident incident2 = new Incident();
+        incident2.setId("incident2");
+        incident2.setNumPeople(3);
+        incident2.setMedicalNeeded(false);
+        incident2.setLatitude(new BigDecimal("34.02000"));
+        incident2.setLongitude(new BigDecimal("-77.02000"));
+        incident2.setReportedTime(System.currentTimeMillis());
+        incident2.setReporterId("reporter2");
+
+        Responder responder1 = new Responder();
+        responder1.setId("responder1");
+        responder1.setBoatCapacity(3);
+        responder1.setHasMedical(false);
+        responder1.setLatitude(new BigDecimal("34.01000"));
+        responder1.setLongitude(new BigDecimal("-77.01000"));
+
+        Responder responder2 = new Responder();
+        responder2.setId("responder2");
+        responder2.setBoatCapacity(3);
+        responder2.setHasMedical(false);
+        responder2.setLatitude(new BigDecimal("34.06000"));
+        responder2.setLongitude(new BigDecimal("-77.04000"));
+
+        Responders responders = new Responders();
+        responders.add(responder1);
+        responders.add(responder2);
+
+        Mission mission1 = new Mission();
+        mission1.setIncidentId("incident1");
+        Mission mission2 = new Mission();
+        mission2.setIncidentId("incident2");
+
+        StatelessKieSession session = KCONTAINER.newStatelessKieSession( "cajun-navy-ksession");
+
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incident1));
+        commands.add(CommandFactory.newInsert(incident2));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(mission1));
+        commands.add(CommandFactory.newInsert(mission2));
+        commands.add(CommandFactory.newFireAllRules());
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(MissionAssignment.class), "missionassignment"));
+
+        Command<?> batch = CommandFactory.newBatchExecution(commands);
+        ExecutionResults results = (ExecutionResults) session.execute(batch);
+
+        assertNotNull(results.getValue("missionassignment"));
+        assertTrue(results.getValue("missionassignment") instanceof List);
+        assertEquals(4, ((List)results.getValue("missionassignment")).size());
+
+        assertEquals(incident1.getId(), mission1.getIncidentId());
+        assertEquals(Status.ASSIGNED, mission1.getStatus());
+        assertEquals(incident2.getId(), mission2.getIncidentId());
+        assertEquals(Status.ASSIGNED, mission2.getStatus());
+        assertNotNull(mission1.getResponderId());
+        assertNotNull(mission2.getResponderId());
+        assertNotEquals(mission1.getResponderId(), mission2.getResponderId());
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are two responders
+     *      There are two incidents, each with a requested mission for the incident
+     *      There are three destinations
+     *      The first destination is the nearest to the first incident
+     *      The second destination is the nearest to the second incident
+     *
+     *    Then:
+     *      Both missions are assigned
+     *      The destination of each mission is set to the destination nearest to its incident
+     *      The destinations are not modified
+     */
+    @Test
+    void testAssignMissionsForBatchOfIncidentsWithDestinations() {
+
+        Incident incident1 = new Incident();
+        incident1.setId("incident1");
+        incident1.setNumPeople(2);
+        incident1.setMedicalNeeded(false);
+        incident1.setLatitude(new BigDecimal("34.00000"));
+        incident1.setLongitude(new BigDecimal("-77.00000"));
+        incident1.setReportedTime(System.currentTimeMillis());
+        incident1.setReporterId("reporter1");
+
+        Incident incident2 = new Incident();
+        incident2.setId("incident2");
+        incident2.setNumPeople(2);
+        incident2.setMedicalNeeded(false);
+        incident2.setLatitude(new BigDecimal("34.10000"));
+        incident2.setLongitude(new BigDecimal("-77.10000"));
+        incident2.setReportedTime(System.currentTimeMillis());
+        incident2.setReporterId("reporter2");
+
+        Responder responder1 = new Responder();
+        responder1.setId("responder1");
+        responder1.setBoatCapacity(3);
+        responder1.setHasMedical(false);
+        responder1.setLatitude(new BigDecimal("34.01000"));
+        responder1.setLongitude(new BigDecimal("-77.01000"));
+
+        Responder responder2 = new Responder();
+        responder2.setId("responder2");
+        responder2.setBoatCapacity(3);
+        responder2.setHasMedical(false);
+        responder2.setLatitude(new BigDecimal("34.09000"));
+        responder2.setLongitude(new BigDecimal("-77.09000"));
+
+        Responders responders = new Responders();
+        responders.add(responder1);
+        responders.add(responder2);
+
+        Destination destination1 = new Destination();
+        destination1.setName("Destination1");
+        destination1.setLatitude(new BigDecimal("33.97000"));
+        destination1.setLongitude(new BigDecimal("-76.96000"));
+
+        Destination destination2 = new Destination();
+        destination2.setName("Destination2");
+        destination2.setLatitude(new BigDecimal("34.13000"));
+        destination2.setLongitude(new BigDecimal("-77.12000"));
+
+        Destination destination3 = new Destination();
+        destination3.setName("Destination3");
+        destination3.setLatitude(new BigDecimal("34.30000"));
+        destination3.setLongitude(new BigDecimal("-77.40000"));
+
+        Destinations destinations = new Destinations();
+        destinations.add(destination1);
+        destinations.add(destination2);
+        destinations.add(destination3);
+
+        Mission mission1 = new Mission();
+        mission1.setIncidentId("incident1");
+        Mission mission2 = new Mission();
+        mission2.setIncidentId("incident2");
+
+        StatelessKieSession session = KCONTAINER.newStatelessKieSession( "cajun-navy-ksession");
+
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incident1));
+        commands.add(CommandFactory.newInsert(incident2));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(destinations));
+        commands.add(CommandFactory.newInsert(mission1));
+        commands.add(CommandFactory.newInsert(mission2));
+        commands.add(CommandFactory.newFireAllRules());
+
+        Command<?> batch = CommandFactory.newBatchExecution(commands);
+        session.execute(batch);
+
+        assertEquals(Status.ASSIGNED, mission1.getStatus());
+        assertEquals(Status.ASSIGNED, mission2.getStatus());
+        assertEquals(destination1.getLatitude(), mission1.getDestinationLat());
+        assertEquals(destination1.getLongitude(), mission1.getDestinationLong());
+        assertEquals(destination2.getLatitude(), mission2.getDestinationLat());
+        assertEquals(destination2.getLongitude(), mission2.getDestinationLong());
+        assertNull(destination1.getDistance());
+        assertNull(destination2.getDistance());
+        assertNull(destination3.getDistance());
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There is a responder
+     *      There is an incident
+     *      The responder can fit the EXACT number of people in their boat
+     *      The distance between the responder and the incident is less than 5 km
+     *      There are scoring weights giving 10 points for a distance less than 5 km and 1 point for an exact fit
+     *
+     *    Then:
+     *      A MissionAssignment is created
+     *      The MissionAssignment has a priority of 13
+     *        (10 for distance < 5 km, 1 for capacity <= 4, 1 for capacity <= 2, 1 for the exact fit)
+     */
+    @Test
+    void testAssignMissionWithScoringWeights() {
+
+        Incident incident = new Incident();
+        incident.setId("incident1");
+        incident.setNumPeople(2);
+        incident.setMedicalNeeded(false);
+        incident.setLatitude(new BigDecimal("34.00000"));
+        incident.setLongitude(new BigDecimal("-77.00000"));
+        incident.setReportedTime(System.currentTimeMillis());
+        incident.setReporterId("reporter1");
+
+        Responder responder = new Responder();
+        responder.setId("responder1");
+        responder.setBoatCapacity(2);
+        responder.setHasMedical(false);
+        responder.setLatitude(new BigDecimal("34.03000"));
+        responder.setLongitude(new BigDecimal("-77.04000"));
+
+        Responders responders = new Responders();
+        responders.add(responder);
+
+        ScoringWeights weights = new ScoringWeights();
+        weights.setSpareCapacities(new int[] { 4, 2, 0 }, new int[] { 1, 1, 1 });
+        weights.setDistances(new double[] { 5000, Double.POSITIVE_INFINITY }, new int[] { 10, 0 });
+
+        StatelessKieSession session = KCONTAINER.newStatelessKieSession( "cajun-navy-ksession");
+
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incident));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(weights));
+        commands.add(CommandFactory.newInsert(new Mission()));
+        commands.add(CommandFactory.newFireAllRules());
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(MissionAssignment.class), "missionassignment"));
+
+        Command<?> batch = CommandFactory.newBatchExecution(commands);
+        ExecutionResults results = (ExecutionResults) session.execute(batch);
+
+        assertNotNull(results.getValue("missionassignment"));
+        assertEquals(1, ((List)results.getValue("missionassignment")).size());
+        MissionAssignment missionAssignment = (MissionAssignment) ((List)(results.getValue("missionassignment"))).get(0);
+        assertEquals(13, missionAssignment.getCompatibilityScore());
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are two responders, the second one more than 100 km away from the incident
+     *      There is an incident
+     *      The incident is evaluated once deferred, with a priority lower than the average priority
+     *      and more incidents waiting to be assigned than available responders / 1.5,
+     *      and once without a priority
+     *
+     *    Then:
+     *      No responder is inserted for the deferred incident
+     *      Only the responder eligible for the incident is inserted for the incident without a priority
+     */
+    @Test
+    void testOnlyTheRespondersEligibleForAnIncidentAreInserted() {
+
+        Incident incident = new Incident();
+        incident.setId("incident1");
+        incident.setNumPeople(2);
+        incident.setMedicalNeeded(false);
+        incident.setLatitude(new BigDecimal("34.00000"));
+        incident.setLongitude(new BigDecimal("-77.00000"));
+        incident.setReportedTime(System.currentTimeMillis());
+        incident.setReporterId("reporter1");
+
+        Responder responder1 = new Responder();
+        responder1.setId("responder1");
+        responder1.setBoatCapacity(3);
+        responder1.setHasMedical(false);
+        responder1.setLatitude(new BigDecimal("34.03000"));
+        responder1.setLongitude(new BigDecimal("-77.04000"));
+
+        Responder responder2 = new Responder();
+        responder2.setId("responder2");
+        responder2.setBoatCapacity(3);
+        responder2.setHasMedical(false);
+        responder2.setLatitude(new BigDecimal("35.03000"));
+        responder2.setLongitude(new BigDecimal("-78.04000"));
+
+        Responders responders = new Responders();
+        responders.add(responder1);
+        responders.add(responder2);
+
+        IncidentPriority incidentPriority = new IncidentPriority();
+        incidentPriority.setIncidentId("incident1");
+        incidentPriority.setPriority(new BigDecimal(5));
+        incidentPriority.setAveragePriority(new BigDecimal(5.1));
+        incidentPriority.setIncidents(new BigDecimal(2));
+
+        StatelessKieSession session = KCONTAINER.newStatelessKieSession( "cajun-navy-ksession");
+
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incident));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(incidentPriority));
+        commands.add(CommandFactory.newInsert(new Mission()));
+        commands.add(CommandFactory.newFireAllRules());
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(Responder.class), "responder"));
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(Mission.class), "mission"));
+
+        ExecutionResults results = (ExecutionResults) session.execute(CommandFactory.newBatchExecution(commands));
+
+        assertEquals(0, ((List)results.getValue("responder")).size());
+        Mission mission = (Mission) ((List)(results.getValue("mission"))).get(0);
+        assertEquals(Status.UNASSIGNED, mission.getStatus());
+
+        commands = new ArrayList<>();
+        commands.add(CommandFactory.newInsert(incident));
+        commands.add(CommandFactory.newInsert(responders));
+        commands.add(CommandFactory.newInsert(new Mission()));
+        commands.add(CommandFactory.newFireAllRules());
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(Responder.class), "responder"));
+        commands.add(CommandFactory.newGetObjects(new ClassObjectFilter(Mission.class), "mission"));
+
+        results = (ExecutionResults) session.execute(CommandFactory.newBatchExecution(commands));
+
+        assertEquals(1, ((List)results.getValue("responder")).size());
+        assertEquals(responder1, ((List)results.getValue("responder")).get(0));
+        mission = (Mission) ((List)(results.getValue("mission"))).get(0);
+        assertEquals(responder1.getId(), mission.getResponderId());
+        assertEquals(Status.ASSIGNED, mission.getStatus());
+    }
+
 }
@@ -0,0 +1,149 @@
+package com.redhat.cajun.navy.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Responder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName( "Cajun Navy Responder Index Tests" )
+public class ResponderIndexTest {
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Responders with and without a position and a boat capacity are added, moved and removed
+     *      Incidents with and without a position look for all the Responders
+     *
+     *    Then:
+     *      The candidates are exactly the Responders in the index that can take the incident's number of people
+     */
+    @Test
+    void testCandidatesAreTheRespondersThatCanFitThePeople() {
+        Random random = new Random(1);
+        List<Responder> responders = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            responders.add(responder("responder" + i, random));
+        }
+        ResponderIndex index = new ResponderIndex(responders);
+        for (int i = 0; i < 100; i++) {
+            int r = random.nextInt(responders.size());
+            if (random.nextBoolean()) {
+                assertTrue(index.remove(responders.remove(r).getId()));
+            } else {
+                Responder moved = responder(responders.get(r).getId(), random);
+                responders.set(r, moved);
+                index.put(moved);
+            }
+        }
+        assertFalse(index.remove("unknown"));
+        assertEquals(responders.size(), index.size());
+
+        ResponderSearch search = new ResponderSearch(0, 0, 0);
+        for (int numPeople = 1; numPeople <= 12; numPeople++) {
+            Set<String> expected = new HashSet<>();
+            for (Responder responder : responders) {
+                Integer capacity = responder.getBoatCapacity();
+                if (capacity != null && capacity >= numPeople) {
+                    expected.add(responder.getId());
+                }
+            }
+            for (boolean located : new boolean[] { true, false }) {
+                Incident incident = new Incident();
+                incident.setId("incident");
+                incident.setNumPeople(numPeople);
+                if (located) {
+                    incident.setLatitude(new BigDecimal("34.1"));
+                    incident.setLongitude(new BigDecimal("-77.2"));
+                }
+                Set<String> actual = new HashSet<>();
+                for (ResponderIndex.Candidate candidate : index.findNear(incident, search)) {
+                    assertTrue(actual.add(candidate.getResponder().getId()));
+                }
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Clustered incidents look for Responders with and without the eligibility cache, with several searches
+     *      Responders are added, moved and removed between the incidents
+     *
+     *    Then:
+     *      The cached candidates are exactly the uncached ones, with the same distances in the same order
+     *      The cache is hit, and invalidated by the Responder changes
+     */
+    @Test
+    void testEligibilityCacheFindsTheSameCandidates() {
+        Random random = new Random(7);
+        List<Responder> responders = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            responders.add(responder("responder" + i, random));
+        }
+        ResponderIndex cached = new ResponderIndex(responders);
+        ResponderIndex uncached = new ResponderIndex(responders);
+        uncached.getEligibilityCache().setMaxSize(0);
+
+        ResponderSearch[] searches = { new ResponderSearch(), new ResponderSearch(2000, 30000, 0),
+                new ResponderSearch(5000, 20000, 5) };
+        double[][] clusters = { { 34.02, -77.13 }, { 33.71, -76.64 }, { 34.38, -77.41 } };
+        for (int i = 0; i < 600; i++) {
+            if (i % 10 == 9) {
+                Responder changed = responder("responder" + random.nextInt(400), random);
+                if (random.nextInt(4) == 0) {
+                    cached.remove(changed.getId());
+                    uncached.remove(changed.getId());
+                } else {
+                    cached.put(changed);
+                    uncached.put(changed);
+                }
+            }
+            double[] cluster = clusters[random.nextInt(clusters.length)];
+            Incident incident = new Incident();
+            incident.setId("incident" + i);
+            incident.setNumPeople(1 + random.nextInt(12));
+            incident.setLatitude(BigDecimal.valueOf(cluster[0] + random.nextGaussian() * 0.03));
+            incident.setLongitude(BigDecimal.valueOf(cluster[1] + random.nextGaussian() * 0.03));
+            ResponderSearch search = searches[random.nextInt(searches.length)];
+
+            List<ResponderIndex.Candidate> expected = uncached.findNear(incident, search);
+            List<ResponderIndex.Candidate> actual = cached.findNear(incident, search);
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j).getResponder().getId(), actual.get(j).getResponder().getId());
+                assertEquals(expected.get(j).getDistance(), actual.get(j).getDistance());
+            }
+        }
+        EligibilityCache cache = cached.getEligibilityCache();
+        assertTrue(cache.getHits() > cache.getMisses());
+        assertTrue(cache.getInvalidations() > 0);
+        assertEquals(0, uncached.getEligibilityCache().size());
+    }
+
+    private static Responder responder(String id, Random random) {
+        Responder responder = new Responder();
+        responder.setId(id);
+        if (random.nextInt(10) > 0) {
+            responder.setBoatCapacity(1 + random.nextInt(12));
+        }
+        if (random.nextInt(10) > 0) {
+            responder.setLatitude(BigDecimal.valueOf(34 + random.nextDouble() - 0.5));
+            responder.setLongitude(BigDecimal.valueOf(-77 + random.nextDouble() - 0.5));
+        }
+        return responder;
+    }
+}
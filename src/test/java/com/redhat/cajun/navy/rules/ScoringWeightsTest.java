@@ -0,0 +1,54 @@
+package com.redhat.cajun.navy.rules;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName( "Cajun Navy Scoring Weights Tests" )
+public class ScoringWeightsTest {
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The weights of the scoring-weights.csv table of the kjar are read
+     *
+     *    Then:
+     *      They are the weights of the original scoring rules
+     */
+    @Test
+    void testDefaultTableHasTheOriginalWeights() {
+        ScoringWeights expected = new ScoringWeights();
+        ScoringWeights actual = ScoringWeights.defaults();
+
+        assertEquals(expected.getMedical(), actual.getMedical());
+        assertEquals(expected.getPerson(), actual.getPerson());
+        assertArrayEquals(expected.getSpareCapacities(), actual.getSpareCapacities());
+        assertArrayEquals(expected.getSpareCapacityPoints(), actual.getSpareCapacityPoints());
+        assertArrayEquals(expected.getDistances(), actual.getDistances());
+        assertArrayEquals(expected.getDistancePoints(), actual.getDistancePoints());
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      A table has an unknown factor, a row without points, or distances out of order
+     *
+     *    Then:
+     *      It is rejected
+     */
+    @Test
+    void testInvalidTablesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ScoringWeights.read(new StringReader("speed,,10")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringWeights.read(new StringReader("medical,,")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringWeights.read(new StringReader("distance,100")));
+        assertThrows(IllegalArgumentException.class,
+                () -> ScoringWeights.read(new StringReader("distance,5000,10\ndistance,1000,20")));
+    }
+}
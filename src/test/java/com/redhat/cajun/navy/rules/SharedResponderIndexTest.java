@@ -0,0 +1,146 @@
+package com.redhat.cajun.navy.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+
+@DisplayName( "Cajun Navy Shared Responder Index Tests" )
+public class SharedResponderIndexTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Each execution has a fleet of new Responder instances, with Responders added, moved and removed
+     *      since the previous one
+     *      Clustered incidents look for Responders in views of one shared index, one view per execution
+     *
+     *    Then:
+     *      The candidates are exactly the ones of a new index of the fleet, with the same distances in the same order
+     *      The candidates are the Responders of the execution's fleet
+     *      The memo is hit across the executions
+     */
+    @Test
+    void testViewsFindTheCandidatesOfTheirFleet() {
+        Random random = new Random(11);
+        List<double[]> positions = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            positions.add(new double[] { 34 + random.nextDouble() - 0.5, -77 + random.nextDouble() - 0.5,
+                    1 + random.nextInt(12) });
+        }
+        SharedResponderIndex shared = new SharedResponderIndex();
+        ResponderSearch search = new ResponderSearch();
+        for (int execution = 0; execution < 20; execution++) {
+            for (int i = 0; i < 5; i++) {
+                int r = random.nextInt(positions.size());
+                if (random.nextInt(3) == 0) {
+                    positions.set(r, null);
+                } else {
+                    positions.set(r, new double[] { 34 + random.nextDouble() - 0.5, -77 + random.nextDouble() - 0.5,
+                            1 + random.nextInt(12) });
+                }
+            }
+            List<Responder> fleet = new ArrayList<>();
+            for (int i = 0; i < positions.size(); i++) {
+                double[] position = positions.get(i);
+                if (position != null) {
+                    fleet.add(responder("responder" + i, position));
+                }
+            }
+            ResponderIndex view = shared.view(fleet);
+            ResponderIndex expectedIndex = new ResponderIndex(fleet);
+            assertEquals(fleet.size(), view.size());
+
+            for (int i = 0; i < 10; i++) {
+                Incident incident = new Incident();
+                incident.setId("incident" + i);
+                incident.setNumPeople(1 + random.nextInt(12));
+                incident.setLatitude(BigDecimal.valueOf(34.02 + random.nextGaussian() * 0.03));
+                incident.setLongitude(BigDecimal.valueOf(-77.13 + random.nextGaussian() * 0.03));
+
+                List<ResponderIndex.Candidate> expected = expectedIndex.findNear(incident, search);
+                List<ResponderIndex.Candidate> actual = view.findNear(incident, search);
+                assertEquals(expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertSame(expected.get(j).getResponder(), actual.get(j).getResponder());
+                    assertEquals(expected.get(j).getDistance(), actual.get(j).getDistance());
+                }
+            }
+            assertEquals(fleet.size(), shared.size());
+        }
+        EligibilityCache cache = shared.getEligibilityCache();
+        assertTrue(cache.getHits() > cache.getMisses());
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      A shared index is inserted with the Responders in the stateless session
+     *      Two incidents in the same grid cell are assigned in two executions
+     *
+     *    Then:
+     *      Both missions are assigned to the nearest Responder
+     *      The second execution hits the memo of the first one
+     */
+    @Test
+    void testExecutionsShareTheMemo() {
+        StatelessKieSession session = KCONTAINER.newStatelessKieSession("cajun-navy-ksession");
+        SharedResponderIndex shared = new SharedResponderIndex();
+        for (int i = 1; i <= 2; i++) {
+            Responders responders = new Responders();
+            responders.add(responder("responder1", new double[] { 34.01, -77.01, 3 }));
+            responders.add(responder("responder2", new double[] { 34.2, -77.2, 3 }));
+            Incident incident = new Incident();
+            incident.setId("incident" + i);
+            incident.setNumPeople(2);
+            incident.setMedicalNeeded(false);
+            incident.setLatitude(new BigDecimal("34.00000"));
+            incident.setLongitude(new BigDecimal("-77.00000"));
+            Mission mission = new Mission();
+
+            List<Command<?>> commands = new ArrayList<>();
+            commands.add(CommandFactory.newInsert(incident));
+            commands.add(CommandFactory.newInsert(responders));
+            commands.add(CommandFactory.newInsert(shared));
+            commands.add(CommandFactory.newInsert(mission));
+            commands.add(CommandFactory.newFireAllRules());
+            session.execute(CommandFactory.newBatchExecution(commands));
+
+            assertEquals(Status.ASSIGNED, mission.getStatus());
+            assertEquals("responder1", mission.getResponderId());
+        }
+        assertEquals(1, shared.getEligibilityCache().getMisses());
+        assertEquals(1, shared.getEligibilityCache().getHits());
+    }
+
+    private static Responder responder(String id, double[] position) {
+        Responder responder = new Responder();
+        responder.setId(id);
+        responder.setBoatCapacity((int) position[2]);
+        responder.setHasMedical(false);
+        responder.setLatitude(BigDecimal.valueOf(position[0]));
+        responder.setLongitude(BigDecimal.valueOf(position[1]));
+        return responder;
+    }
+}
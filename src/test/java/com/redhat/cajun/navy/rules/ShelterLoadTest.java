@@ -0,0 +1,129 @@
+package com.redhat.cajun.navy.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.redhat.cajun.navy.rules.model.Destination;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName( "Cajun Navy Shelter Load Tests" )
+public class ShelterLoadTest {
+
+    private static final BigDecimal LATITUDE = new BigDecimal("34.00000");
+
+    private static final BigDecimal LONGITUDE = new BigDecimal("-77.00000");
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are two shelters, the nearest one can take 4 people, the other one 100 people
+     *      Three incidents of 2 people next to the nearest shelter are routed, then one of them is dropped off
+     *      and one is cancelled
+     *
+     *    Then:
+     *      The first two incidents are routed to the nearest shelter, the third one to the other shelter
+     *      The people are in flight until they are dropped off or cancelled
+     */
+    @Test
+    void testMissionsGoToTheNextShelterWhenTheNearestIsFull() {
+        Destination near = destination("near", "34.01000", "-77.01000");
+        Destination far = destination("far", "34.05000", "-77.05000");
+        List<Destination> destinations = new ArrayList<>();
+        destinations.add(near);
+        destinations.add(far);
+        DestinationIndex index = new DestinationIndex(destinations);
+
+        ShelterLoad load = new ShelterLoad();
+        load.setBalance(0);
+        load.setCapacity("near", 4);
+        load.setCapacity("far", 100);
+
+        assertSame(near, load.route(index, "incident1", LATITUDE, LONGITUDE, 2));
+        assertSame(near, load.route(index, "incident2", LATITUDE, LONGITUDE, 2));
+        assertSame(far, load.route(index, "incident3", LATITUDE, LONGITUDE, 2));
+        assertEquals(0, load.getRemaining("near"));
+        assertEquals(4, load.getInFlight("near"));
+        assertEquals(98, load.getRemaining("far"));
+
+        assertTrue(load.droppedOff("incident1"));
+        assertEquals(2, load.getInFlight("near"));
+        assertEquals(0, load.getRemaining("near"));
+        assertTrue(load.cancel("incident2"));
+        assertFalse(load.cancel("incident2"));
+        assertEquals(2, load.getRemaining("near"));
+
+        // routed again, the previous drop-off is replaced
+        assertSame(near, load.route(index, "incident3", LATITUDE, LONGITUDE, 2));
+        assertEquals(0, load.getInFlight("far"));
+        assertEquals(0, load.getRemaining("near"));
+
+        // no shelter has room, the nearest one is chosen
+        load.setCapacity("far", 0);
+        assertSame(near, load.route(index, "incident4", LATITUDE, LONGITUDE, 2));
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are hundreds of shelters, with and without a capacity and people in them
+     *      Incidents are routed one after the other
+     *
+     *    Then:
+     *      Each incident is routed to the shelter with room of the lowest cost, distance weighted by the load
+     */
+    @Test
+    void testRouteIsTheShelterWithTheLowestCost() {
+        Random random = new Random(3);
+        List<Destination> destinations = new ArrayList<>();
+        ShelterLoad load = new ShelterLoad();
+        for (int i = 0; i < 300; i++) {
+            Destination destination = destination("shelter" + i, String.valueOf(34 + random.nextDouble() - 0.5),
+                    String.valueOf(-77 + random.nextDouble() - 0.5));
+            destinations.add(destination);
+            if (random.nextInt(5) > 0) {
+                int capacity = random.nextInt(20);
+                load.setCapacity(destination.getName(), capacity);
+                load.setOccupancy(destination.getName(), capacity == 0 ? 0 : random.nextInt(capacity));
+            }
+        }
+        DestinationIndex index = new DestinationIndex(destinations);
+
+        for (int i = 0; i < 500; i++) {
+            BigDecimal latitude = BigDecimal.valueOf(34 + random.nextDouble() * 0.2 - 0.1);
+            BigDecimal longitude = BigDecimal.valueOf(-77 + random.nextDouble() * 0.2 - 0.1);
+            int people = 1 + random.nextInt(6);
+
+            Destination expected = null;
+            double lowest = Double.POSITIVE_INFINITY;
+            for (Destination destination : destinations) {
+                double distance = DistanceHelper.calculateDistance(latitude, destination.getLatitude(),
+                        longitude, destination.getLongitude());
+                double cost = load.cost(destination, distance, people);
+                if (cost < lowest) {
+                    lowest = cost;
+                    expected = destination;
+                }
+            }
+            Destination routed = load.route(index, "incident" + i, latitude, longitude, people);
+            assertSame(expected, routed);
+        }
+    }
+
+    private static Destination destination(String name, String latitude, String longitude) {
+        Destination destination = new Destination();
+        destination.setName(name);
+        destination.setLatitude(new BigDecimal(latitude));
+        destination.setLongitude(new BigDecimal(longitude));
+        return destination;
+    }
+}
@@ -0,0 +1,72 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.incident;
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.responder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieContainer;
+
+@DisplayName( "Cajun Navy Assignment Executor Tests" )
+public class AssignmentExecutorTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Twenty incidents are assigned concurrently with the same two responders, on virtual threads when the JVM has them
+     *      The same incidents are assigned on two platform threads
+     *
+     *    Then:
+     *      Virtual threads are used exactly when Executors has newVirtualThreadPerTaskExecutor
+     *      Each incident is assigned to the closest responder, independently of the others
+     */
+    @Test
+    void testConcurrentAssignments() throws Exception {
+        boolean available = true;
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            available = false;
+        }
+        assertEquals(available, AssignmentExecutor.isVirtualThreadsAvailable());
+
+        try (AssignmentExecutor executor = new AssignmentExecutor(KCONTAINER, true, 2)) {
+            assertEquals(available, executor.isVirtual());
+            assertAssigned(executor);
+        }
+        try (AssignmentExecutor executor = new AssignmentExecutor(KCONTAINER, false, 2)) {
+            assertFalse(executor.isVirtual());
+            assertAssigned(executor);
+        }
+    }
+
+    private static void assertAssigned(AssignmentExecutor executor) throws Exception {
+        Responders responders = new Responders();
+        responders.add(responder("responder1", "34.01000", "-77.01000"));
+        responders.add(responder("responder2", "34.20000", "-77.20000"));
+        List<CompletableFuture<Mission>> missions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            missions.add(executor.assign(incident("incident" + i), null, responders, null));
+        }
+        for (CompletableFuture<Mission> future : missions) {
+            Mission mission = future.get(10, TimeUnit.SECONDS);
+            assertEquals(Status.ASSIGNED, mission.getStatus());
+            assertEquals("responder1", mission.getResponderId());
+        }
+    }
+}
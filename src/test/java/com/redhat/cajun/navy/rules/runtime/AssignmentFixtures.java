@@ -0,0 +1,50 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import java.math.BigDecimal;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Responder;
+
+/**
+ * The incidents and responders the runtime tests assign: an incident of two people with
+ * no medical need, and responders with no medical kit.
+ */
+final class AssignmentFixtures {
+
+    static final String LATITUDE = "34.00000";
+
+    static final String LONGITUDE = "-77.00000";
+
+    private AssignmentFixtures() {
+    }
+
+    static Incident incident(String id) {
+        return incident(id, LATITUDE, LONGITUDE);
+    }
+
+    static Incident incident(String id, String latitude, String longitude) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setNumPeople(2);
+        incident.setMedicalNeeded(false);
+        incident.setLatitude(new BigDecimal(latitude));
+        incident.setLongitude(new BigDecimal(longitude));
+        incident.setReportedTime(System.currentTimeMillis());
+        incident.setReporterId("reporter1");
+        return incident;
+    }
+
+    static Responder responder(String id, String latitude, String longitude) {
+        return responder(id, latitude, longitude, 3);
+    }
+
+    static Responder responder(String id, String latitude, String longitude, int boatCapacity) {
+        Responder responder = new Responder();
+        responder.setId(id);
+        responder.setBoatCapacity(boatCapacity);
+        responder.setHasMedical(false);
+        responder.setLatitude(new BigDecimal(latitude));
+        responder.setLongitude(new BigDecimal(longitude));
+        return responder;
+    }
+}
@@ -0,0 +1,115 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.incident;
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.responder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieContainer;
+
+@DisplayName( "Cajun Navy Assignment Intake Tests" )
+public class AssignmentIntakeTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Three incidents and a second report of the first one are submitted before the intake is started
+     *      There are three responders
+     *
+     *    Then:
+     *      The three incidents are evaluated in one batch, each assigned to a different responder
+     *      The second report of the first incident is evaluated in a batch of its own, and assigned
+     *      The metrics count four incidents submitted in two batches
+     */
+    @Test
+    void testMicroBatches() throws Exception {
+        Responders responders = new Responders();
+        responders.add(responder("responder1", "34.01000", "-77.01000"));
+        responders.add(responder("responder2", "34.02000", "-77.02000"));
+        responders.add(responder("responder3", "34.03000", "-77.03000"));
+
+        try (AssignmentIntake intake = new AssignmentIntake(KCONTAINER, () -> responders, null, 10, 10, 20)) {
+            List<CompletableFuture<Mission>> futures = new ArrayList<>();
+            futures.add(intake.submit(incident("incident1"), null));
+            futures.add(intake.submit(incident("incident2"), null));
+            futures.add(intake.submit(incident("incident3"), null));
+            futures.add(intake.submit(incident("incident1"), null));
+            assertEquals(4, intake.getQueueDepth());
+            intake.start();
+
+            Set<String> assigned = new HashSet<>();
+            for (int i = 0; i < 3; i++) {
+                Mission mission = futures.get(i).get(10, TimeUnit.SECONDS);
+                assertEquals("incident" + (i + 1), mission.getIncidentId());
+                assertEquals(Status.ASSIGNED, mission.getStatus());
+                assigned.add(mission.getResponderId());
+            }
+            assertEquals(3, assigned.size());
+            Mission again = futures.get(3).get(10, TimeUnit.SECONDS);
+            assertEquals("incident1", again.getIncidentId());
+            assertEquals(Status.ASSIGNED, again.getStatus());
+
+            assertEquals(4, intake.getSubmitted());
+            assertEquals(0, intake.getRejected());
+            assertEquals(2, intake.getBatches());
+            assertEquals(3, intake.getBatchSizeMax());
+            assertTrue(intake.getLatencyP99Micros() > 0);
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Three incidents are submitted to an intake that isn't started, with room for two
+     *      The intake is closed
+     *
+     *    Then:
+     *      The third incident is rejected at once
+     *      The two queued incidents are rejected on close, as is an incident submitted afterwards
+     */
+    @Test
+    void testBackpressure() throws Exception {
+        AssignmentIntake intake = new AssignmentIntake(KCONTAINER, Responders::new, null, 2, 10, 20);
+        CompletableFuture<Mission> first = intake.submit(incident("incident1"), null);
+        CompletableFuture<Mission> second = intake.submit(incident("incident2"), null);
+        CompletableFuture<Mission> third = intake.submit(incident("incident3"), null);
+        assertRejected(third);
+        assertEquals(2, intake.getSubmitted());
+        assertEquals(1, intake.getRejected());
+        assertEquals(2, intake.getQueueCapacity());
+
+        intake.close();
+        assertRejected(first);
+        assertRejected(second);
+        assertRejected(intake.submit(incident("incident4"), null));
+        assertEquals(4, intake.getRejected());
+    }
+
+    private static void assertRejected(CompletableFuture<Mission> future) throws InterruptedException {
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieContainer;
+
+@DisplayName( "Cajun Navy Assignment Replay Tests" )
+public class AssignmentReplayTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    private static final String WORKLOAD = String.join("\n",
+            "# type,time,...",
+            "responder,1000,responder1,34.01000,-77.01000,10,true,false",
+            "responder,1000,responder2,34.20000,-77.20000,10,true,false",
+            "destination,1000,shelter1,34.10000,-77.10000",
+            "incident,1100,incident1,34.00000,-77.00000,2,false,,,,,,ASSIGNED,responder1",
+            "remove responder,1150,responder1",
+            "incident,1200,incident2,34.00000,-77.00000,2,false,1,1,2,false,0,ASSIGNED,responder1",
+            "",
+            "incident,1300,incident3,34.00000,-77.00000,2,false,,,,,,,");
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      A workload of two responders and three incidents is replayed ten times faster than recorded
+     *      The closest responder is removed before the second incident, which was recorded as assigned to it
+     *      The third incident has no recorded mission
+     *
+     *    Then:
+     *      The three incidents are replayed, in at least the recorded time divided by the speed
+     *      Only the second incident differs, replayed as assigned to the other responder
+     *      Every incident has a latency
+     */
+    @Test
+    void testReplayWorkload() throws Exception {
+        ReplayWorkload workload = ReplayWorkload.read(new StringReader(WORKLOAD));
+        assertEquals(7, workload.getEvents().size());
+        assertEquals(3, workload.getIncidentCount());
+        ReplayWorkload.IncidentEvent first = (ReplayWorkload.IncidentEvent) workload.getEvents().get(3);
+        assertNull(first.getPriority());
+        assertEquals(1100L, first.getIncident().getReportedTime());
+
+        AssignmentReplay.Report report = new AssignmentReplay(KCONTAINER, 10).replay(workload);
+
+        assertEquals(3, report.getIncidents());
+        assertEquals(2, report.getCompared());
+        assertTrue(report.getTime() >= 30_000_000L);
+        assertEquals(1, report.getDifferences().size());
+        AssignmentReplay.Difference difference = report.getDifferences().get(0);
+        assertEquals("incident2", difference.getIncidentId());
+        assertEquals("ASSIGNED", difference.getExpectedStatus());
+        assertEquals("responder1", difference.getExpectedResponderId());
+        assertEquals("ASSIGNED", difference.getStatus());
+        assertEquals("responder2", difference.getResponderId());
+        assertEquals(3, report.getLatencies().getCount());
+        assertTrue(report.getLatencies().getMax() > 0);
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      A workload has an incident with a missing column
+     *
+     *    Then:
+     *      Reading it fails with the number of the line
+     */
+    @Test
+    void testInvalidWorkload() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ReplayWorkload.read(
+                new StringReader("responder,0,responder1,34,-77,10,true,false\nincident,0,incident1,34,-77,2")));
+        assertTrue(e.getMessage().contains("line 2"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.incident;
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.responder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+
+@DisplayName( "Cajun Navy Session Pool Tests" )
+public class AssignmentSessionPoolTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Two incidents are assigned one after the other with a pool of one session
+     *      The first responder is nearer to the first incident, the second responder to the second incident
+     *
+     *    Then:
+     *      Each mission is assigned to the nearest responder
+     *      The session of the first incident is reset and reused for the second incident
+     */
+    @Test
+    void testSessionIsResetAndReused() {
+        Responders responders = new Responders();
+        responders.add(responder("responder1", "34.03000", "-77.04000", 4));
+        responders.add(responder("responder2", "34.53000", "-77.54000", 4));
+
+        try (AssignmentSessionPool pool = new AssignmentSessionPool(KCONTAINER, 1, 0)) {
+            Mission mission1 = pool.assign(incident("incident1", "34.00000", "-77.00000"), null, responders, null, new Mission());
+            assertEquals(Status.ASSIGNED, mission1.getStatus());
+            assertEquals("responder1", mission1.getResponderId());
+
+            Mission mission2 = pool.assign(incident("incident2", "34.50000", "-77.50000"), null, responders, null, new Mission());
+            assertEquals(Status.ASSIGNED, mission2.getStatus());
+            assertEquals("responder2", mission2.getResponderId());
+
+            assertEquals(2, pool.getBorrowed());
+            assertEquals(1, pool.getCreated());
+            assertEquals(1, pool.getReused());
+            assertEquals(1, pool.getIdle());
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Two sessions are borrowed from a pool of one session, then returned
+     *
+     *    Then:
+     *      A new session is created for each of them
+     *      Only one of them is kept in the pool
+     */
+    @Test
+    void testNewSessionWhenPoolIsExhausted() {
+        try (AssignmentSessionPool pool = new AssignmentSessionPool(KCONTAINER, 1, 10)) {
+            KieSession session1 = pool.borrow();
+            KieSession session2 = pool.borrow();
+            assertNotSame(session1, session2);
+            assertEquals(2, pool.getCreated());
+
+            pool.release(session1);
+            pool.release(session2);
+            assertEquals(1, pool.getIdle());
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Two sessions are borrowed from an empty pool of two sessions with a wait of ten seconds
+     *
+     *    Then:
+     *      Both are created without waiting for a session to be returned
+     */
+    @Test
+    void testNoWaitWhileUnderCapacity() {
+        try (AssignmentSessionPool pool = new AssignmentSessionPool(KCONTAINER, 2, 10000)) {
+            KieSession session1 = pool.borrow();
+            KieSession session2 = pool.borrow();
+            assertNotSame(session1, session2);
+            assertEquals(2, pool.getCreated());
+            assertTrue(pool.getMaxWaitTime() < TimeUnit.SECONDS.toNanos(1));
+
+            pool.release(session1);
+            pool.release(session2);
+            assertEquals(2, pool.getIdle());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.incident;
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.responder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+
+@DisplayName( "Cajun Navy Assignment Trace Tests" )
+public class AssignmentTraceLogTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The trace is attached to a stateless session, with segments smaller than the records
+     *      An incident with two responders is assigned
+     *      The log is reopened and a batch of two incidents with the same two responders is assigned
+     *
+     *    Then:
+     *      The log has one execution per assignment, in order
+     *      The first execution has the assigned mission and both candidates, the chosen one with the highest score
+     *      The points of the factors of each candidate add up to its score
+     *      The second execution has the choice for both missions of the batch and the four candidates
+     */
+    @Test
+    void testTraceChoicesAndCandidates() throws Exception {
+        Path file = Files.createTempFile("assignment-trace", ".log");
+        Files.delete(file);
+        try {
+            StatelessKieSession session = KCONTAINER.newStatelessKieSession("cajun-navy-ksession");
+            try (AssignmentTraceLog log = new AssignmentTraceLog(file, 64)) {
+                log.attach(session);
+                execute(session, Arrays.asList(new Mission()), incident("incident1", "34.00000", "-77.00000"));
+            }
+            try (AssignmentTraceLog log = new AssignmentTraceLog(file, 64)) {
+                log.attach(session);
+                Mission mission1 = new Mission();
+                mission1.setIncidentId("incident2");
+                Mission mission2 = new Mission();
+                mission2.setIncidentId("incident3");
+                execute(session, Arrays.asList(mission1, mission2), incident("incident2", "34.00000", "-77.00000"),
+                        incident("incident3", "34.02000", "-77.02000"));
+            }
+
+            List<TracedExecution> executions = new ArrayList<>();
+            AssignmentTraceReader.read(file, executions::add);
+            assertEquals(2, executions.size());
+
+            TracedExecution first = executions.get(0);
+            assertEquals(1, first.getChoices().size());
+            TracedExecution.Choice choice = first.getChoices().get(0);
+            assertEquals("incident1", choice.getIncidentId());
+            assertEquals("responder1", choice.getResponderId());
+            assertEquals("ASSIGNED", choice.getStatus());
+            assertEquals(2, first.getCandidates().size());
+            for (TracedExecution.Candidate candidate : first.getCandidates()) {
+                assertEquals("incident1", candidate.getIncidentId());
+                assertEquals(candidate.getScore(), candidate.getMedical() + candidate.getSpareCapacity()
+                        + candidate.getDistancePoints() + candidate.getPerson());
+                assertTrue(candidate.getDistance() > 0);
+                if (!candidate.getResponderId().equals(choice.getResponderId())) {
+                    assertTrue(candidate.getScore() <= score(first, choice.getResponderId()));
+                }
+            }
+
+            TracedExecution batch = executions.get(1);
+            Set<String> incidents = new HashSet<>();
+            for (TracedExecution.Choice batchChoice : batch.getChoices()) {
+                incidents.add(batchChoice.getIncidentId());
+                assertEquals("ASSIGNED", batchChoice.getStatus());
+            }
+            assertEquals(new HashSet<>(Arrays.asList("incident2", "incident3")), incidents);
+            assertEquals(4, batch.getCandidates().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The trace is attached to a stateless session
+     *      An incident is scored against two responders with no Mission requested, so none is assigned
+     *      Another incident is assigned on the same thread
+     *
+     *    Then:
+     *      The log has one execution, for the second incident
+     *      Its candidates are only the two of the second incident
+     */
+    @Test
+    void testCandidatesOfAnExecutionWithoutAssignmentAreDropped() throws Exception {
+        Path file = Files.createTempFile("assignment-trace", ".log");
+        Files.delete(file);
+        try {
+            StatelessKieSession session = KCONTAINER.newStatelessKieSession("cajun-navy-ksession");
+            try (AssignmentTraceLog log = new AssignmentTraceLog(file, 4096)) {
+                log.attach(session);
+                execute(session, new ArrayList<>(), incident("incident1", "34.00000", "-77.00000"));
+                execute(session, Arrays.asList(new Mission()), incident("incident2", "34.00000", "-77.00000"));
+            }
+
+            List<TracedExecution> executions = new ArrayList<>();
+            AssignmentTraceReader.read(file, executions::add);
+            assertEquals(1, executions.size());
+            assertEquals("incident2", executions.get(0).getChoices().get(0).getIncidentId());
+            assertEquals(2, executions.get(0).getCandidates().size());
+            for (TracedExecution.Candidate candidate : executions.get(0).getCandidates()) {
+                assertEquals("incident2", candidate.getIncidentId());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The trace is attached to two stateless sessions, with segments smaller than the records
+     *      An incident is assigned by each session
+     *      The trace is detached from the first session and an incident is assigned by each session again
+     *
+     *    Then:
+     *      The log has one execution per assignment of an attached session, in order
+     *      Each execution only has the candidates of its own incident
+     */
+    @Test
+    void testTraceEachAttachedSession() throws Exception {
+        Path file = Files.createTempFile("assignment-trace", ".log");
+        Files.delete(file);
+        try {
+            StatelessKieSession first = KCONTAINER.newStatelessKieSession("cajun-navy-ksession");
+            StatelessKieSession second = KCONTAINER.newStatelessKieSession("cajun-navy-ksession");
+            try (AssignmentTraceLog log = new AssignmentTraceLog(file, 64)) {
+                log.attach(first);
+                log.attach(second);
+                execute(first, Arrays.asList(new Mission()), incident("incident1", "34.00000", "-77.00000"));
+                execute(second, Arrays.asList(new Mission()), incident("incident2", "34.00000", "-77.00000"));
+                log.detach(first);
+                execute(first, Arrays.asList(new Mission()), incident("incident3", "34.00000", "-77.00000"));
+                execute(second, Arrays.asList(new Mission()), incident("incident4", "34.00000", "-77.00000"));
+            }
+
+            List<TracedExecution> executions = new ArrayList<>();
+            AssignmentTraceReader.read(file, executions::add);
+            assertEquals(3, executions.size());
+            String[] expected = { "incident1", "incident2", "incident4" };
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], executions.get(i).getChoices().get(0).getIncidentId());
+                assertEquals(2, executions.get(i).getCandidates().size());
+                for (TracedExecution.Candidate candidate : executions.get(i).getCandidates()) {
+                    assertEquals(expected[i], candidate.getIncidentId());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int score(TracedExecution execution, String responderId) {
+        for (TracedExecution.Candidate candidate : execution.getCandidates()) {
+            if (candidate.getResponderId().equals(responderId)) {
+                return candidate.getScore();
+            }
+        }
+        throw new AssertionError(responderId);
+    }
+
+    private static void execute(StatelessKieSession session, List<Mission> missions, Incident... incidents) {
+        Responders responders = new Responders();
+        responders.add(responder("responder1", "34.01000", "-77.01000"));
+        responders.add(responder("responder2", "34.20000", "-77.20000"));
+
+        List<Command<?>> commands = new ArrayList<>();
+        for (Incident incident : incidents) {
+            commands.add(CommandFactory.newInsert(incident));
+        }
+        commands.add(CommandFactory.newInsert(responders));
+        for (Mission mission : missions) {
+            commands.add(CommandFactory.newInsert(mission));
+        }
+        commands.add(CommandFactory.newFireAllRules());
+        session.execute(CommandFactory.newBatchExecution(commands));
+    }
+}
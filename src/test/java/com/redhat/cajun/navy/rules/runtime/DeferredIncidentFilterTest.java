@@ -0,0 +1,153 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.incident;
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.responder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieContainer;
+
+@DisplayName( "Cajun Navy Deferred Incident Filter Tests" )
+public class DeferredIncidentFilterTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      Incidents with every combination of priority, average priority, incidents waiting and escalation
+     *      are evaluated by the rules against one and three responders that can take them
+     *      The same incidents are pre-evaluated by the filter
+     *
+     *    Then:
+     *      The filter defers exactly the incidents the rules leave unassigned
+     *      An incident without an IncidentPriority is always evaluated
+     */
+    @Test
+    void testDeferExactlyTheIncidentsTheRulesDefer() throws Exception {
+        DeferredIncidentFilter filter = new DeferredIncidentFilter();
+        int deferred = 0;
+        try (AssignmentExecutor executor = new AssignmentExecutor(KCONTAINER, false, 1)) {
+            for (int fleet : new int[] { 1, 3 }) {
+                Responders responders = responders(fleet);
+                for (int priority : new int[] { 0, 1, 5, 6, 10, 11, 20 }) {
+                    for (int average : new int[] { 1, 10, 15, 25 }) {
+                        for (int incidents = 0; incidents <= 2; incidents++) {
+                            for (int escalation = 0; escalation < 3; escalation++) {
+                                IncidentPriority incidentPriority = priority(priority, average, incidents,
+                                        escalation == 2, escalation == 0 ? 0 : 2);
+                                Mission mission = executor.assign(incident("incident1"), incidentPriority, responders, null)
+                                        .get(10, TimeUnit.SECONDS);
+                                DeferredIncidentFilter.Result result = filter.evaluate(incidentPriority, fleet);
+                                String description = fleet + " responders, " + priority + " of " + average + ", "
+                                        + incidents + " incidents, escalation " + escalation;
+                                assertEquals(mission.getStatus() == Status.UNASSIGNED,
+                                        result == DeferredIncidentFilter.Result.DEFERRED, description);
+                                deferred += result == DeferredIncidentFilter.Result.DEFERRED ? 1 : 0;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(deferred, filter.getDeferred());
+        assertEquals(504 - deferred, filter.getEvaluated());
+        assertEquals(DeferredIncidentFilter.Result.EVALUATE, filter.evaluate(null, 0));
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The filter is given to an AssignmentExecutor, an AssignmentSessionPool, a StatefulAssignmentSession
+     *      and an AssignmentIntake
+     *      Each of them is asked to assign an incident with a low priority and many incidents waiting,
+     *      and the same incident with a high priority
+     *      The filter is registered in the platform MBeanServer
+     *
+     *    Then:
+     *      The low priority incidents are returned unassigned, and the high priority ones are assigned
+     *      Four incidents are counted as deferred and four as evaluated
+     *      The MBean reports the same counts
+     */
+    @Test
+    void testDeferIncidentsWithoutASession() throws Exception {
+        DeferredIncidentFilter filter = new DeferredIncidentFilter();
+        IncidentPriority low = priority(1, 10, 100, false, 0);
+        IncidentPriority high = priority(10, 10, 100, false, 0);
+        Responders responders = responders(1);
+
+        try (AssignmentExecutor executor = new AssignmentExecutor(KCONTAINER, false, 1)) {
+            executor.setDeferredIncidentFilter(filter);
+            assertEquals(Status.UNASSIGNED, executor.assign(incident("incident1"), low, responders, null)
+                    .get(10, TimeUnit.SECONDS).getStatus());
+            assertEquals(Status.ASSIGNED, executor.assign(incident("incident1"), high, responders, null)
+                    .get(10, TimeUnit.SECONDS).getStatus());
+        }
+        try (AssignmentSessionPool pool = new AssignmentSessionPool(KCONTAINER, 1, 0)) {
+            pool.setDeferredIncidentFilter(filter);
+            assertEquals(Status.UNASSIGNED, pool.assign(incident("incident1"), low, responders, null, new Mission()).getStatus());
+            assertEquals(0, pool.getBorrowed());
+            assertEquals(Status.ASSIGNED, pool.assign(incident("incident1"), high, responders, null, new Mission()).getStatus());
+        }
+        try (StatefulAssignmentSession session = new StatefulAssignmentSession(KCONTAINER)) {
+            session.setDeferredIncidentFilter(filter);
+            session.putResponder(responders.getResponders().get(0));
+            assertEquals(Status.UNASSIGNED, session.assign(incident("incident1"), low, null, new Mission()).getStatus());
+            assertEquals(Status.ASSIGNED, session.assign(incident("incident1"), high, null, new Mission()).getStatus());
+        }
+        try (AssignmentIntake intake = new AssignmentIntake(KCONTAINER, () -> responders, null, 10, 10, 0)) {
+            intake.setDeferredIncidentFilter(filter);
+            intake.start();
+            assertEquals(Status.UNASSIGNED, intake.submit(incident("incident1"), low).get(10, TimeUnit.SECONDS).getStatus());
+            assertEquals(Status.ASSIGNED, intake.submit(incident("incident1"), high).get(10, TimeUnit.SECONDS).getStatus());
+        }
+
+        assertEquals(4, filter.getDeferred());
+        assertEquals(4, filter.getEvaluated());
+
+        ObjectName name = filter.registerMBean("test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(4L, server.getAttribute(name, "Deferred"));
+            assertEquals(4L, server.getAttribute(name, "Evaluated"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    private static IncidentPriority priority(int priority, int average, int incidents, boolean escalated,
+            int escalatedIncidents) {
+        IncidentPriority incidentPriority = new IncidentPriority();
+        incidentPriority.setIncidentId("incident1");
+        incidentPriority.setPriority(new BigDecimal(priority));
+        incidentPriority.setAveragePriority(new BigDecimal(average));
+        incidentPriority.setIncidents(new BigDecimal(incidents));
+        incidentPriority.setEscalated(escalated);
+        incidentPriority.setEscalatedIncidents(new BigDecimal(escalatedIncidents));
+        return incidentPriority;
+    }
+
+    private static Responders responders(int size) {
+        Responders responders = new Responders();
+        for (int i = 1; i <= size; i++) {
+            responders.add(responder("responder" + i, "34.0" + i, "-77.0" + i));
+        }
+        return responders;
+    }
+}
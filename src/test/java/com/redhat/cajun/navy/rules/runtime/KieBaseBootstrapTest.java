@@ -0,0 +1,131 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.incident;
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.responder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.command.CommandFactory;
+
+@DisplayName( "Cajun Navy KieBase Bootstrap Tests" )
+public class KieBaseBootstrapTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The KieBase is bootstrapped with an empty cache, then again with the same cache
+     *      An incident is assigned with a session of the cached KieBase after the warm-up
+     *
+     *    Then:
+     *      The first bootstrap builds the KieBase and stores it in the cache
+     *      The second bootstrap loads it from the cache
+     *      The mission is assigned to the responder
+     */
+    @Test
+    void testKieBaseIsCachedAndWarmedUp() throws Exception {
+        Path cache = Files.createTempDirectory("kbase-cache");
+        try {
+            KieBaseBootstrap first = new KieBaseBootstrap(KCONTAINER, cache);
+            first.getKieBase();
+            assertFalse(first.isCached());
+
+            KieBaseBootstrap second = new KieBaseBootstrap(KCONTAINER, cache);
+            second.getKieBase();
+            assertTrue(second.isCached());
+            assertTrue(second.warmUp(10000) > 0);
+
+            Incident incident = incident("incident1");
+            Responders responders = new Responders();
+            responders.add(responder("responder1", "34.03000", "-77.04000", 4));
+            Mission mission = new Mission();
+
+            List<Command<?>> commands = new ArrayList<>();
+            commands.add(CommandFactory.newInsert(incident));
+            commands.add(CommandFactory.newInsert(responders));
+            commands.add(CommandFactory.newInsert(mission));
+            commands.add(CommandFactory.newFireAllRules());
+            StatelessKieSession session = second.newStatelessKieSession();
+            session.execute(CommandFactory.newBatchExecution(commands));
+
+            assertEquals(Status.ASSIGNED, mission.getStatus());
+            assertEquals("responder1", mission.getResponderId());
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(cache)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(cache);
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The KieBase is bootstrapped with a cache directory that doesn't exist yet
+     *      The cached KieBase is made writable by others and bootstrapped again
+     *      The cache directory is made writable by others and the KieBase bootstrapped again
+     *
+     *    Then:
+     *      The cache directory is created accessible to its owner only
+     *      The KieBase writable by others isn't loaded but built again, and the cache rewritten for the owner only
+     *      The KieBase isn't loaded from the directory writable by others
+     */
+    @Test
+    void testCacheWritableByOthersIsNotLoaded() throws Exception {
+        Path parent = Files.createTempDirectory("kbase-cache");
+        assumeTrue(parent.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path cache = parent.resolve("cache");
+        try {
+            new KieBaseBootstrap(KCONTAINER, cache).getKieBase();
+            assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(cache));
+
+            Path file;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(cache)) {
+                file = files.iterator().next();
+            }
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-rw-rw-"));
+            KieBaseBootstrap writableFile = new KieBaseBootstrap(KCONTAINER, cache);
+            writableFile.getKieBase();
+            assertFalse(writableFile.isCached());
+            assertFalse(Files.getPosixFilePermissions(file).contains(PosixFilePermission.OTHERS_WRITE));
+
+            Files.setPosixFilePermissions(cache, PosixFilePermissions.fromString("rwxrwxrwx"));
+            KieBaseBootstrap writableDirectory = new KieBaseBootstrap(KCONTAINER, cache);
+            writableDirectory.getKieBase();
+            assertFalse(writableDirectory.isCached());
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(cache)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(cache);
+            Files.delete(parent);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.incident;
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.responder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieContainer;
+
+@DisplayName( "Cajun Navy Rule Metrics Tests" )
+public class RuleMetricsTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The metrics are attached to a stateful session
+     *      Two incidents are assigned one after the other to a responder
+     *      The metrics are registered in the platform MBeanServer
+     *
+     *    Then:
+     *      The rules fired twice are counted twice, each firing with its consequence time
+     *      The incidents and missions inserted are counted by type, the responder is only in the index
+     *      Both fireAllRules are timed
+     *      The MBean reports the same counts
+     */
+    @Test
+    void testRecordRuleFiringsInsertsAndFireAllRules() throws Exception {
+        RuleMetrics metrics = new RuleMetrics();
+        try (StatefulAssignmentSession session = new StatefulAssignmentSession(KCONTAINER)) {
+            session.setRuleMetrics(metrics);
+            session.putResponder(responder("responder1", "34.03000", "-77.04000"));
+            for (int i = 1; i <= 2; i++) {
+                Mission mission = session.assign(incident("incident" + i), null, null, new Mission());
+                assertEquals(Status.ASSIGNED, mission.getStatus());
+            }
+        }
+
+        Map<String, Long> firings = metrics.getFirings();
+        assertEquals(Long.valueOf(2), firings.get("Assign the top mission"));
+        assertTrue(metrics.getActivations().get("Assign the top mission") >= 2);
+        LatencyHistogram consequences = metrics.getConsequenceTimes("Assign the top mission");
+        assertNotNull(consequences);
+        assertEquals(2, consequences.getCount());
+        assertTrue(consequences.getMax() > 0);
+
+        assertEquals(Long.valueOf(2), metrics.getInserts().get(Incident.class.getName()));
+        assertEquals(Long.valueOf(2), metrics.getInserts().get(Mission.class.getName()));
+        assertNull(metrics.getInserts().get(Responder.class.getName()));
+        assertEquals(2, metrics.getFireAllRulesCount());
+        assertTrue(metrics.getFireAllRulesMaxMicros() > 0);
+
+        ObjectName name = metrics.registerMBean("test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(2L, server.getAttribute(name, "FireAllRulesCount"));
+            TabularData table = (TabularData) server.getAttribute(name, "Firings");
+            CompositeData row = table.get(new Object[] { "Assign the top mission" });
+            assertEquals(2L, row.get("value"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The values 1 to 100000 ns are recorded in a histogram
+     *
+     *    Then:
+     *      The count, mean and max are exact
+     *      The percentiles are within 6.25% of the exact ones
+     */
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100000, histogram.getCount());
+        assertEquals(50000.5, histogram.getMean(), 1e-9);
+        assertEquals(100000, histogram.getMax());
+        for (double percentile : new double[] { 1, 50, 90, 99, 99.9 }) {
+            double exact = percentile * 1000;
+            long value = histogram.getValueAtPercentile(percentile);
+            assertTrue(value >= exact && value <= exact * 1.0625, percentile + ": " + value);
+        }
+        assertEquals(100000, histogram.getValueAtPercentile(100));
+    }
+}
@@ -0,0 +1,105 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import com.redhat.cajun.navy.rules.ScoringWeights;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName( "Cajun Navy Scoring Weights Reloader Tests" )
+public class ScoringWeightsReloaderTest {
+
+    private static final String BANDS = "\nspare capacity,4,25\nspare capacity,0,50\ndistance,5000,100\ndistance,,25\nperson,,100";
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The table of the reloader is scanned without changes, changed, and replaced by an invalid table
+     *
+     *    Then:
+     *      New weights are only published when the table changed
+     *      The invalid table leaves the previous weights in place
+     */
+    @Test
+    void testReloadOnlyChangedValidTables() throws Exception {
+        Path table = Files.createTempFile("scoring-weights", ".csv");
+        try {
+            write(table, "medical,,100" + BANDS, 1000);
+            try (ScoringWeightsReloader reloader = new ScoringWeightsReloader(table)) {
+                ScoringWeights weights = reloader.getWeights();
+                assertEquals(100, weights.getMedical());
+                assertFalse(reloader.scanNow());
+                assertSame(weights, reloader.getWeights());
+
+                write(table, "medical,,50" + BANDS, 2000);
+                assertTrue(reloader.scanNow());
+                assertEquals(50, reloader.getWeights().getMedical());
+
+                write(table, "medical,,lots" + BANDS, 3000);
+                reloader.start(10);
+                for (int i = 0; i < 500 && reloader.getLastError() == null; i++) {
+                    Thread.sleep(10);
+                }
+                assertNotNull(reloader.getLastError());
+                assertEquals(50, reloader.getWeights().getMedical());
+            }
+        } finally {
+            Files.delete(table);
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      The table is caught while it is written, with only its medical row
+     *      The write completes with the same modification time
+     *      A table with a bound on its last distance band is written
+     *
+     *    Then:
+     *      The incomplete table is rejected and the previous weights stay in place
+     *      The completed table is published
+     *      The table with a bounded last distance band is rejected
+     */
+    @Test
+    void testIncompleteTablesAreNotPublished() throws Exception {
+        Path table = Files.createTempFile("scoring-weights", ".csv");
+        try {
+            write(table, "medical,,100" + BANDS, 1000);
+            try (ScoringWeightsReloader reloader = new ScoringWeightsReloader(table)) {
+                ScoringWeights weights = reloader.getWeights();
+
+                write(table, "medical,,50", 2000);
+                assertThrows(IllegalArgumentException.class, reloader::scanNow);
+                assertSame(weights, reloader.getWeights());
+
+                write(table, "medical,,50" + BANDS, 2000);
+                assertTrue(reloader.scanNow());
+                assertEquals(50, reloader.getWeights().getMedical());
+                assertEquals(25, reloader.getWeights().scoreDistance(100000.0));
+
+                write(table, "medical,,50\nspare capacity,0,50\ndistance,5000,100\nperson,,100", 3000);
+                assertThrows(IllegalArgumentException.class, reloader::scanNow);
+                assertEquals(25, reloader.getWeights().scoreDistance(100000.0));
+            }
+        } finally {
+            Files.delete(table);
+        }
+    }
+
+    private static void write(Path table, String content, long modified) throws Exception {
+        Files.write(table, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(table, FileTime.fromMillis(modified));
+    }
+}
@@ -0,0 +1,185 @@
+package com.redhat.cajun.navy.rules.runtime;
+
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.incident;
+import static com.redhat.cajun.navy.rules.runtime.AssignmentFixtures.responder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.redhat.cajun.navy.rules.ShelterLoad;
+import com.redhat.cajun.navy.rules.model.Destination;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieContainer;
+
+@DisplayName( "Cajun Navy Stateful Session Tests" )
+public class StatefulAssignmentSessionTest {
+
+    private static final KieContainer KCONTAINER = KieServices.Factory.get().newKieClasspathContainer();
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are two responders in the session
+     *      Two incidents are assigned one after the other
+     *      The first responder is nearer to the first incident, the second responder to the second incident
+     *
+     *    Then:
+     *      Each mission is assigned to the nearest responder
+     *      Only the index and the search are left in the session
+     */
+    @Test
+    void testAssignIncidentsOneAfterTheOther() {
+        try (StatefulAssignmentSession session = new StatefulAssignmentSession(KCONTAINER)) {
+            session.putResponder(responder("responder1", "34.03000", "-77.04000"));
+            session.putResponder(responder("responder2", "34.53000", "-77.54000"));
+
+            Mission mission1 = session.assign(incident("incident1", "34.00000", "-77.00000"), null, null, new Mission());
+            assertEquals(Status.ASSIGNED, mission1.getStatus());
+            assertEquals("responder1", mission1.getResponderId());
+
+            Mission mission2 = session.assign(incident("incident2", "34.50000", "-77.50000"), null, null, new Mission());
+            assertEquals(Status.ASSIGNED, mission2.getStatus());
+            assertEquals("responder2", mission2.getResponderId());
+
+            assertEquals(2, session.getKieSession().getFactCount());
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are two responders in the session
+     *      The first responder is the nearest to the incident, then moves away
+     *
+     *    Then:
+     *      The mission is assigned to the first responder before it moves, to the second responder after it moves
+     */
+    @Test
+    void testAssignIncidentAfterResponderMoved() {
+        try (StatefulAssignmentSession session = new StatefulAssignmentSession(KCONTAINER)) {
+            session.putResponder(responder("responder1", "34.03000", "-77.04000"));
+            session.putResponder(responder("responder2", "34.06000", "-77.04000"));
+
+            Mission mission = session.assign(incident("incident1", "34.00000", "-77.00000"), null, null, new Mission());
+            assertEquals("responder1", mission.getResponderId());
+
+            session.putResponder(responder("responder1", "35.03000", "-78.04000"));
+
+            mission = session.assign(incident("incident1", "34.00000", "-77.00000"), null, null, new Mission());
+            assertEquals("responder2", mission.getResponderId());
+            assertEquals(2, session.getResponderCount());
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There is one responder in the session
+     *      The responder is removed
+     *
+     *    Then:
+     *      The mission is not assigned
+     */
+    @Test
+    void testAssignIncidentAfterResponderRemoved() {
+        try (StatefulAssignmentSession session = new StatefulAssignmentSession(KCONTAINER)) {
+            session.putResponder(responder("responder1", "34.03000", "-77.04000"));
+            session.removeResponder("responder1");
+
+            Mission mission = session.assign(incident("incident1", "34.00000", "-77.00000"), null, null, new Mission());
+            assertEquals(Status.UNASSIGNED, mission.getStatus());
+            assertEquals(0, session.getResponderCount());
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There are two responders in the session
+     *      Two incidents are assigned in one batch
+     *      The first responder is the nearest to both incidents
+     *
+     *    Then:
+     *      Both missions are assigned
+     *      Each responder gets one of the missions
+     */
+    @Test
+    void testAssignBatchOfIncidents() {
+        try (StatefulAssignmentSession session = new StatefulAssignmentSession(KCONTAINER)) {
+            session.putResponder(responder("responder1", "34.01000", "-77.01000"));
+            session.putResponder(responder("responder2", "34.06000", "-77.04000"));
+
+            List<Mission> missions = session.assignAll(Arrays.asList(incident("incident1", "34.00000", "-77.00000"),
+                    incident("incident2", "34.02000", "-77.02000")), Collections.emptyList(), null);
+
+            assertEquals(2, missions.size());
+            assertEquals("incident1", missions.get(0).getIncidentId());
+            assertEquals(Status.ASSIGNED, missions.get(0).getStatus());
+            assertEquals("incident2", missions.get(1).getIncidentId());
+            assertEquals(Status.ASSIGNED, missions.get(1).getStatus());
+            assertNotEquals(missions.get(0).getResponderId(), missions.get(1).getResponderId());
+            assertEquals(2, session.getKieSession().getFactCount());
+        }
+    }
+
+    /**
+     *  Test description:
+     *
+     *    When :
+     *      There is a responder in the session
+     *      There are two shelters, the nearest one can take 4 people
+     *      Three incidents of 2 people next to the nearest shelter are assigned one after the other
+     *
+     *    Then:
+     *      The first two missions go to the nearest shelter, the third one to the other shelter
+     *      Only the index, the search and the shelter load are left in the session
+     */
+    @Test
+    void testAssignIncidentsToSheltersWithRoom() {
+        try (StatefulAssignmentSession session = new StatefulAssignmentSession(KCONTAINER)) {
+            session.putResponder(responder("responder1", "34.03000", "-77.04000"));
+            ShelterLoad load = new ShelterLoad();
+            load.setBalance(0);
+            load.setCapacity("near", 4);
+            session.setShelterLoad(load);
+
+            Destinations destinations = new Destinations();
+            destinations.add(destination("near", "34.01000", "-77.01000"));
+            destinations.add(destination("far", "34.10000", "-77.10000"));
+
+            List<String> routed = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                Mission mission = session.assign(incident("incident" + i, "34.00000", "-77.00000"), null, destinations,
+                        new Mission());
+                assertEquals(Status.ASSIGNED, mission.getStatus());
+                routed.add(mission.getDestinationLat().toPlainString());
+            }
+            assertEquals(Arrays.asList("34.01000", "34.01000", "34.10000"), routed);
+            assertEquals(4, load.getInFlight("near"));
+            assertEquals(2, load.getInFlight("far"));
+            assertEquals(3, session.getKieSession().getFactCount());
+        }
+    }
+
+    private static Destination destination(String name, String latitude, String longitude) {
+        Destination destination = new Destination();
+        destination.setName(name);
+        destination.setLatitude(new BigDecimal(latitude));
+        destination.setLongitude(new BigDecimal(longitude));
+        return destination;
+    }
+}